@@ -0,0 +1,148 @@
+package com.erutulco.utils;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.GregorianCalendar;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of conversions between Gregorian and Imladris dates, and of ImladrisCalendar
+ * arithmetic and formatting, at several days of a loa.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ImladrisCalendarBenchmark {
+
+  /**
+   * Day of loa XV 10 of the dates converted.
+   */
+  @Param({"1", "100", "200", "365"})
+  private int dayOfLoa;
+
+  private ImladrisDate date;
+  private GregorianCalendar gregorian;
+  private LocalDateTime localDateTime;
+  private Instant instant;
+  private ZoneId zone;
+  private LocalTime sunset;
+  private String yen;
+  private int period;
+  private int dayOfPeriod;
+  private ImladrisCalendar calendar;
+  private String text;
+  private StringBuilder buffer;
+
+  /**
+   * Prepare the dates of the benchmarks.
+   */
+  @Setup
+  public void setUp() {
+    this.date = ImladrisDate.of(15, 10, this.dayOfLoa);
+    LocalDate local = this.date.toLocalDate();
+    this.gregorian = new GregorianCalendar(local.getYear(), local.getMonthValue() - 1,
+        local.getDayOfMonth(), 20, 30, 0);
+    this.localDateTime = local.atTime(20, 30);
+    this.zone = ZoneId.of("America/Montevideo");
+    this.instant = this.localDateTime.atZone(this.zone).toInstant();
+    this.sunset = LocalTime.of(19, 0);
+    this.yen = "XV";
+    this.period = this.date.getPeriodOfLoaInt();
+    this.dayOfPeriod = this.date.getDayOfPeriod();
+    this.calendar = new ImladrisCalendar(this.date);
+    this.text = this.date.toString();
+    this.buffer = new StringBuilder(32);
+  }
+
+  @Benchmark
+  public ImladrisCalendar fromGregorian() {
+    return new ImladrisCalendar(this.gregorian);
+  }
+
+  @Benchmark
+  public ImladrisCalendar fromGregorianWithSunset() {
+    return new ImladrisCalendar(this.sunset, this.gregorian);
+  }
+
+  @Benchmark
+  public ImladrisCalendar fromLocalDateTime() {
+    return ImladrisCalendar.from(this.localDateTime);
+  }
+
+  @Benchmark
+  public ImladrisCalendar fromLocalDateTimeWithSunset() {
+    return ImladrisCalendar.from(this.sunset, this.localDateTime);
+  }
+
+  @Benchmark
+  public ImladrisCalendar fromInstant() {
+    return ImladrisCalendar.from(this.instant, this.zone);
+  }
+
+  @Benchmark
+  public ImladrisCalendar fromImladris() {
+    return new ImladrisCalendar(this.yen, 10, this.period, this.dayOfPeriod);
+  }
+
+  @Benchmark
+  public ImladrisCalendar fromImladrisDate() {
+    return new ImladrisCalendar(this.date);
+  }
+
+  /**
+   * Add a day to a new calendar, as add changes it; compare with fromImladrisDate.
+   * @return Calendar a day later
+   */
+  @Benchmark
+  public ImladrisCalendar addDayOfLoa() {
+    ImladrisCalendar cal = new ImladrisCalendar(this.date);
+    cal.add(ImladrisCalendar.DAY_OF_LOA, 1);
+    return cal;
+  }
+
+  @Benchmark
+  public int get() {
+    return this.calendar.get(ImladrisCalendar.DAY_OF_PERIOD)
+        + this.calendar.get(ImladrisCalendar.WEEK_OF_PERIOD);
+  }
+
+  @Benchmark
+  public String format() {
+    return this.calendar.toString();
+  }
+
+  /**
+   * Format into a reused buffer, as when writing logs or CSV.
+   * @return Buffer with the formatted date
+   */
+  @Benchmark
+  public StringBuilder formatTo() {
+    this.buffer.setLength(0);
+    ImladrisDateFormatter.TEXTUAL.formatTo(this.date, this.buffer);
+    return this.buffer;
+  }
+
+  @Benchmark
+  public ImladrisDate parse() {
+    return ImladrisDateFormatter.TEXTUAL.parse(this.text);
+  }
+
+}
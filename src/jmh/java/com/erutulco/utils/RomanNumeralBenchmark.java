@@ -0,0 +1,53 @@
+package com.erutulco.utils;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the Roman numeral conversions of yen.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RomanNumeralBenchmark {
+
+  @Param({"1", "8", "15"})
+  private int yen;
+
+  private String roman;
+  private ImladrisCalendar calendar;
+
+  /**
+   * Prepare the numerals of the benchmarks.
+   */
+  @Setup
+  public void setUp() {
+    this.calendar = new ImladrisCalendar(ImladrisDate.of(15, 10, 1));
+    this.roman = this.calendar.intToRoman(this.yen);
+  }
+
+  @Benchmark
+  public String intToRoman() {
+    return this.calendar.intToRoman(this.yen);
+  }
+
+  @Benchmark
+  public int romanToInt() {
+    return this.calendar.romanToInt(this.roman);
+  }
+
+}
@@ -0,0 +1,73 @@
+package com.erutulco.utils;
+
+import java.time.LocalDate;
+import java.util.GregorianCalendar;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of sunset calculation, without network lookups.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SunsetBenchmark {
+
+  private LocationInfo info;
+  private GregorianCalendar gregorian;
+  private LocalDate day;
+  private long epochDay;
+  private SunsetCalculator calculator;
+  private SunsetCache cache;
+
+  /**
+   * Prepare the location and day of the benchmarks.
+   */
+  @Setup
+  public void setUp() {
+    this.info = new LocationInfo("America/Montevideo", -34.9011, -56.1645);
+    this.gregorian = new GregorianCalendar(2017, GregorianCalendar.MARCH, 1, 21, 0, 0);
+    this.day = LocalDate.of(2017, 3, 1);
+    this.epochDay = this.day.toEpochDay();
+    this.calculator = new SunsetCalculator(this.info);
+    this.cache = new SunsetCache(16);
+  }
+
+  @Benchmark
+  public String calculateSunset() {
+    return SunsetUtils.calculateSunset(this.gregorian, this.info);
+  }
+
+  @Benchmark
+  public int sunsetCalculator() {
+    return this.calculator.getSunsetSecondOfDay(this.epochDay);
+  }
+
+  @Benchmark
+  public int sunsetCache() {
+    return this.cache.getSunsetSecondOfDay(this.info, this.epochDay);
+  }
+
+  /**
+   * Look sunset up and convert a time after it to Imladris.
+   * @return Calendar of the next day
+   */
+  @Benchmark
+  public ImladrisCalendar convertWithSunset() {
+    return new ImladrisCalendar(this.cache.getSunset(this.info, this.day), this.gregorian);
+  }
+
+}
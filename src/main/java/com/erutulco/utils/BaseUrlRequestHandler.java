@@ -0,0 +1,79 @@
+package com.erutulco.utils;
+
+import com.google.gson.FieldNamingPolicy;
+import com.google.maps.GeoApiContext;
+import com.google.maps.PendingResult;
+import com.google.maps.internal.ApiResponse;
+import com.google.maps.internal.ExceptionsAllowedToRetry;
+
+import java.net.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Geo API request handler that sends every request to a fixed base URL, such as a local
+ * stand-in server, through another handler.
+ */
+class BaseUrlRequestHandler implements GeoApiContext.RequestHandler {
+
+  private final String baseUrl;
+  private final GeoApiContext.RequestHandler delegate;
+
+  /**
+   * Request handler sending requests to 'baseUrl' instead of Google.
+   * @param baseUrl Base URL, without trailing slash (i.e.: 'http://localhost:8080')
+   * @param delegate Handler performing the requests
+   */
+  BaseUrlRequestHandler(String baseUrl, GeoApiContext.RequestHandler delegate) {
+    this.baseUrl = baseUrl;
+    this.delegate = delegate;
+  }
+
+  @Override
+  public <T, R extends ApiResponse<T>> PendingResult<T> handle(
+      String hostName, String url, String userAgent, Class<R> clazz,
+      FieldNamingPolicy fieldNamingPolicy, long errorTimeout, Integer maxRetries,
+      ExceptionsAllowedToRetry exceptionsAllowedToRetry) {
+    return this.delegate.handle(this.baseUrl, url, userAgent, clazz, fieldNamingPolicy,
+        errorTimeout, maxRetries, exceptionsAllowedToRetry);
+  }
+
+  @Override
+  public <T, R extends ApiResponse<T>> PendingResult<T> handlePost(
+      String hostName, String url, String payload, String userAgent, Class<R> clazz,
+      FieldNamingPolicy fieldNamingPolicy, long errorTimeout, Integer maxRetries,
+      ExceptionsAllowedToRetry exceptionsAllowedToRetry) {
+    return this.delegate.handlePost(this.baseUrl, url, payload, userAgent, clazz,
+        fieldNamingPolicy, errorTimeout, maxRetries, exceptionsAllowedToRetry);
+  }
+
+  @Override
+  public void setConnectTimeout(long timeout, TimeUnit unit) {
+    this.delegate.setConnectTimeout(timeout, unit);
+  }
+
+  @Override
+  public void setReadTimeout(long timeout, TimeUnit unit) {
+    this.delegate.setReadTimeout(timeout, unit);
+  }
+
+  @Override
+  public void setWriteTimeout(long timeout, TimeUnit unit) {
+    this.delegate.setWriteTimeout(timeout, unit);
+  }
+
+  @Override
+  public void setQueriesPerSecond(int maxQps) {
+    this.delegate.setQueriesPerSecond(maxQps);
+  }
+
+  @Override
+  public void setQueriesPerSecond(int maxQps, int minimumInterval) {
+    this.delegate.setQueriesPerSecond(maxQps, minimumInterval);
+  }
+
+  @Override
+  public void setProxy(Proxy proxy) {
+    this.delegate.setProxy(proxy);
+  }
+
+}
@@ -0,0 +1,136 @@
+package com.erutulco.utils;
+
+import java.util.GregorianCalendar;
+
+/**
+ * Integer arithmetic between calendar dates and epoch days.
+ * Epoch day 0 is 1970-01-01, so for dates from 1582-10-15 onwards the numbering matches
+ * {@code LocalDate.toEpochDay()}. Dates before that are read as Julian, matching the default
+ * cutover of GregorianCalendar, so the numbering stays continuous across the reform.
+ */
+final class EpochDays {
+
+  /**
+   * Epoch day of the first Gregorian day, 1582-10-15.
+   */
+  static final int GREGORIAN_CUTOVER = -141427;
+  /**
+   * Days in a 400 year Gregorian cycle.
+   */
+  private static final int DAYS_PER_GREGORIAN_CYCLE = 146097;
+  /**
+   * Days in a 4 year Julian cycle.
+   */
+  private static final int DAYS_PER_JULIAN_CYCLE = 1461;
+  /**
+   * Epoch day of March 1st of Gregorian year 0.
+   */
+  private static final int GREGORIAN_MARCH_1_YEAR_0 = -719468;
+  /**
+   * Epoch day of March 1st of Julian year 0.
+   */
+  private static final int JULIAN_MARCH_1_YEAR_0 = -719470;
+
+  private EpochDays() {
+  }
+
+  /**
+   * Epoch day of the given date, Julian before the Gregorian cutover.
+   * @param year Year, astronomically numbered (0 is 1 BC)
+   * @param month Month is 1-based indexed (1-12|January-December)
+   * @param dayOfMonth Day of the month
+   * @return Epoch day
+   */
+  static int of(int year, int month, int dayOfMonth) {
+    boolean gregorian = year > 1582
+        || (year == 1582 && (month > 10 || (month == 10 && dayOfMonth >= 15)));
+    // count years from March, so that the leap day is the last day of the year
+    int y = month <= 2 ? year - 1 : year;
+    int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + dayOfMonth - 1;
+    int epochDay;
+    if (gregorian) {
+      int cycle = Math.floorDiv(y, 400);
+      int yearOfCycle = y - cycle * 400;
+      int dayOfCycle = yearOfCycle * 365 + yearOfCycle / 4 - yearOfCycle / 100 + dayOfYear;
+      epochDay = cycle * DAYS_PER_GREGORIAN_CYCLE + dayOfCycle + GREGORIAN_MARCH_1_YEAR_0;
+    } else {
+      int cycle = Math.floorDiv(y, 4);
+      int yearOfCycle = y - cycle * 4;
+      int dayOfCycle = yearOfCycle * 365 + dayOfYear;
+      epochDay = cycle * DAYS_PER_JULIAN_CYCLE + dayOfCycle + JULIAN_MARCH_1_YEAR_0;
+    }
+    return epochDay;
+  }
+
+  /**
+   * Epoch day of the date held by a GregorianCalendar, ignoring the time of day.
+   * @param cal Calendar to read the date from
+   * @return Epoch day
+   */
+  static int of(GregorianCalendar cal) {
+    int year = cal.get(GregorianCalendar.YEAR);
+    if (cal.get(GregorianCalendar.ERA) == GregorianCalendar.BC) {
+      year = 1 - year;
+    }
+    return of(year, cal.get(GregorianCalendar.MONTH) + 1, cal.get(GregorianCalendar.DAY_OF_MONTH));
+  }
+
+  /**
+   * Date of an epoch day, packed as {@code year << 9 | month << 5 | dayOfMonth}.
+   * @param epochDay Epoch day
+   * @return Packed year, month and day of month
+   */
+  static int toYearMonthDay(int epochDay) {
+    int y;
+    int dayOfYear;
+    if (epochDay >= GREGORIAN_CUTOVER) {
+      int days = epochDay - GREGORIAN_MARCH_1_YEAR_0;
+      int cycle = Math.floorDiv(days, DAYS_PER_GREGORIAN_CYCLE);
+      int dayOfCycle = days - cycle * DAYS_PER_GREGORIAN_CYCLE;
+      int yearOfCycle = (dayOfCycle - dayOfCycle / 1460 + dayOfCycle / 36524
+          - dayOfCycle / (DAYS_PER_GREGORIAN_CYCLE - 1)) / 365;
+      y = cycle * 400 + yearOfCycle;
+      dayOfYear = dayOfCycle - (365 * yearOfCycle + yearOfCycle / 4 - yearOfCycle / 100);
+    } else {
+      int days = epochDay - JULIAN_MARCH_1_YEAR_0;
+      int cycle = Math.floorDiv(days, DAYS_PER_JULIAN_CYCLE);
+      int dayOfCycle = days - cycle * DAYS_PER_JULIAN_CYCLE;
+      int yearOfCycle = Math.min(dayOfCycle / 365, 3);
+      y = cycle * 4 + yearOfCycle;
+      dayOfYear = dayOfCycle - 365 * yearOfCycle;
+    }
+    int shiftedMonth = (5 * dayOfYear + 2) / 153;
+    int dayOfMonth = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+    int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+    int year = month <= 2 ? y + 1 : y;
+    return (year << 9) | (month << 5) | dayOfMonth;
+  }
+
+  /**
+   * Year of a packed date.
+   * @param yearMonthDay Packed date, as returned by toYearMonthDay
+   * @return Year
+   */
+  static int year(int yearMonthDay) {
+    return yearMonthDay >> 9;
+  }
+
+  /**
+   * Month of a packed date.
+   * @param yearMonthDay Packed date, as returned by toYearMonthDay
+   * @return Month (1-12|January-December)
+   */
+  static int month(int yearMonthDay) {
+    return (yearMonthDay >> 5) & 0xF;
+  }
+
+  /**
+   * Day of month of a packed date.
+   * @param yearMonthDay Packed date, as returned by toYearMonthDay
+   * @return Day of month
+   */
+  static int dayOfMonth(int yearMonthDay) {
+    return yearMonthDay & 0x1F;
+  }
+
+}
@@ -0,0 +1,52 @@
+package com.erutulco.utils;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * IP address provider reading the client address from a header set by an upstream proxy,
+ * either 'X-Forwarded-For: client, proxy' or 'Forwarded: for=client'. The header is per
+ * request, so this provider is meant to be used without caching.
+ */
+public class ForwardedHeaderIpAddressProvider implements IpAddressProvider {
+
+  private final Supplier<String> header;
+
+  /**
+   * Forwarded header IP address provider.
+   * @param header Supplier of the header value of the current request, null if absent
+   */
+  public ForwardedHeaderIpAddressProvider(Supplier<String> header) {
+    this.header = header;
+  }
+
+  @Override
+  public String getIpAddress() {
+    return parse(this.header.get());
+  }
+
+  /**
+   * Client address of a forwarded header value.
+   * @param value X-Forwarded-For or Forwarded header value
+   * @return IP address string, or null if there is none
+   */
+  public static String parse(String value) {
+    if (value == null) {
+      return null;
+    }
+    String first = value.split(",", 2)[0].trim();
+    int forIndex = first.toLowerCase(Locale.ROOT).indexOf("for=");
+    if (forIndex != -1) {
+      // Forwarded: for="[2001:db8::1]:4711";proto=https
+      first = first.substring(forIndex + 4).split(";", 2)[0].trim().replace("\"", "");
+      if (first.startsWith("[")) {
+        int end = first.indexOf(']');
+        first = end == -1 ? first.substring(1) : first.substring(1, end);
+      } else if (first.indexOf(':') == first.lastIndexOf(':') && first.indexOf(':') != -1) {
+        first = first.substring(0, first.indexOf(':'));
+      }
+    }
+    return first.isEmpty() || first.equalsIgnoreCase("unknown") ? null : first;
+  }
+
+}
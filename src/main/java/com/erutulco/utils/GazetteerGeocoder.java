@@ -0,0 +1,321 @@
+package com.erutulco.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Offline geocoder, backed by a gazetteer of places sorted by normalised name.
+ * Names are normalised without case, accents, punctuation or repeated spaces, so
+ * 'SÃO  PAULO' finds 'São Paulo'. A lookup is a binary search read in place from the buffer,
+ * memory-mapped when opened from a file, and it is safe to share between threads.
+ * <br>
+ * Format, big endian: int magic 'GAZ1', int place count, int zone count, each zone id as a short
+ * length and UTF-8 bytes, padding to a multiple of 4 bytes, the places sorted by key, and the
+ * strings. Each place takes 24 bytes: int key offset, int name offset, float latitude, float
+ * longitude, int population, short zone index (0xFFFF if unknown), byte key length and byte
+ * name length. Keys are the normalised city, a tab and the normalised country; names are the
+ * original 'City, Country'. String offsets are relative to the start of the strings.
+ */
+public class GazetteerGeocoder implements Geocoder {
+
+  private static final int MAGIC = 0x47415A31;
+  private static final int PLACE_SIZE = 24;
+  private static final int NO_ZONE = 0xFFFF;
+
+  private final ByteBuffer buffer;
+  private final int count;
+  private final String[] zones;
+  private final int placesStart;
+  private final int stringsStart;
+
+  private GazetteerGeocoder(ByteBuffer buffer) throws IOException {
+    if (buffer.remaining() < 12 || buffer.getInt() != MAGIC) {
+      throw new IOException("Not a gazetteer");
+    }
+    this.count = buffer.getInt();
+    int zoneCount = buffer.getInt();
+    if (this.count < 0 || zoneCount < 0 || zoneCount >= NO_ZONE) {
+      throw new IOException("Invalid gazetteer size");
+    }
+    this.zones = new String[zoneCount];
+    for (int i = 0; i < zoneCount; i++) {
+      byte[] name = new byte[buffer.getShort()];
+      buffer.get(name);
+      this.zones[i] = new String(name, StandardCharsets.UTF_8);
+    }
+    this.placesStart = (buffer.position() + 3) & ~3;
+    this.stringsStart = this.placesStart + this.count * PLACE_SIZE;
+    if (this.stringsStart > buffer.limit()) {
+      throw new IOException("Truncated gazetteer");
+    }
+    this.buffer = buffer;
+  }
+
+  /**
+   * Open a gazetteer file, memory-mapped.
+   * @param file Gazetteer file
+   * @return Geocoder
+   * @throws IOException If the file can not be read or is not a gazetteer
+   */
+  public static GazetteerGeocoder open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      return new GazetteerGeocoder(
+          channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /**
+   * Read a gazetteer from a stream, i.e.: a classpath resource, which can not be memory-mapped.
+   * @param in Gazetteer stream, not closed
+   * @return Geocoder
+   * @throws IOException If the stream can not be read or is not a gazetteer
+   */
+  public static GazetteerGeocoder load(InputStream in) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] chunk = new byte[65536];
+    int read;
+    while ((read = in.read(chunk)) != -1) {
+      out.write(chunk, 0, read);
+    }
+    return new GazetteerGeocoder(ByteBuffer.wrap(out.toByteArray()));
+  }
+
+  /**
+   * Write a gazetteer, i.e.: to build its file from a places database. Arrays are by place.
+   * @param out Stream to write to, not closed
+   * @param cities City names
+   * @param countries Country names
+   * @param lats Latitudes
+   * @param lngs Longitudes
+   * @param timeZones Time zone ids, or null if unknown
+   * @param populations Populations, to choose among places with the same name
+   * @throws IOException If the stream can not be written
+   */
+  public static void write(OutputStream out, String[] cities, String[] countries, double[] lats,
+                           double[] lngs, String[] timeZones, int[] populations)
+      throws IOException {
+    int count = cities.length;
+    byte[][] keys = new byte[count][];
+    byte[][] names = new byte[count][];
+    List<String> zoneIds = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      keys[i] = (normalize(cities[i]) + '\t' + normalize(countries[i]))
+          .getBytes(StandardCharsets.UTF_8);
+      names[i] = SunsetUtils.makeLocationString(cities[i], countries[i])
+          .getBytes(StandardCharsets.UTF_8);
+      if (keys[i].length > 255 || names[i].length > 255) {
+        throw new IllegalArgumentException("Place name too long: " + cities[i]);
+      }
+      if (timeZones[i] != null && !zoneIds.contains(timeZones[i])) {
+        zoneIds.add(timeZones[i]);
+      }
+    }
+    Integer[] order = new Integer[count];
+    for (int i = 0; i < count; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, Comparator.comparing((Integer i) -> keys[i], GazetteerGeocoder::compare));
+    DataOutputStream data = new DataOutputStream(out);
+    data.writeInt(MAGIC);
+    data.writeInt(count);
+    data.writeInt(zoneIds.size());
+    int size = 12;
+    for (String zone : zoneIds) {
+      byte[] name = zone.getBytes(StandardCharsets.UTF_8);
+      data.writeShort(name.length);
+      data.write(name);
+      size += 2 + name.length;
+    }
+    for (; (size & 3) != 0; size++) {
+      data.writeByte(0);
+    }
+    int offset = 0;
+    for (int i : order) {
+      data.writeInt(offset);
+      data.writeInt(offset + keys[i].length);
+      data.writeFloat((float) lats[i]);
+      data.writeFloat((float) lngs[i]);
+      data.writeInt(populations[i]);
+      data.writeShort(timeZones[i] == null ? NO_ZONE : zoneIds.indexOf(timeZones[i]));
+      data.writeByte(keys[i].length);
+      data.writeByte(names[i].length);
+      offset += keys[i].length + names[i].length;
+    }
+    for (int i : order) {
+      data.write(keys[i]);
+      data.write(names[i]);
+    }
+    data.flush();
+  }
+
+  /**
+   * Normalise a name for lookups: without case, accents, punctuation or repeated spaces.
+   * @param name Name
+   * @return Normalised name
+   */
+  public static String normalize(String name) {
+    String decomposed = Normalizer.normalize(name, Normalizer.Form.NFD);
+    StringBuilder normalized = new StringBuilder(decomposed.length());
+    boolean space = false;
+    for (int i = 0; i < decomposed.length(); i++) {
+      char c = decomposed.charAt(i);
+      if (Character.isLetterOrDigit(c)) {
+        if (space && normalized.length() > 0) {
+          normalized.append(' ');
+        }
+        normalized.append(c);
+        space = false;
+      } else if (Character.getType(c) != Character.NON_SPACING_MARK) {
+        space = true;
+      }
+    }
+    return normalized.toString().toLowerCase(Locale.ROOT);
+  }
+
+  /* ************* API Methods ************* */
+
+  /**
+   * Find a place by name. With empty country, the most populated city of that name is found.
+   * @param city City string
+   * @param country Country string
+   * @return Location info, or null if the place is not in the gazetteer
+   */
+  @Override
+  public LocationInfo geocode(String city, String country) {
+    String normalizedCity = normalize(city);
+    String normalizedCountry = normalize(country);
+    if (normalizedCity.isEmpty()) {
+      return null;
+    }
+    int place;
+    if (normalizedCountry.isEmpty()) {
+      byte[] prefix = (normalizedCity + '\t').getBytes(StandardCharsets.UTF_8);
+      place = -1;
+      for (int i = this.lowerBound(prefix); i < this.count && this.startsWith(i, prefix); i++) {
+        if (place == -1 || this.population(i) > this.population(place)) {
+          place = i;
+        }
+      }
+    } else {
+      byte[] key = (normalizedCity + '\t' + normalizedCountry).getBytes(StandardCharsets.UTF_8);
+      place = this.lowerBound(key);
+      if (place == this.count || this.compareKey(place, key) != 0) {
+        place = -1;
+      }
+    }
+    return place == -1 ? null : this.toLocationInfo(place);
+  }
+
+  /**
+   * Names of the places whose city starts with the given prefix, i.e.: for suggestions.
+   * @param cityPrefix City prefix, normalised before the lookup
+   * @param limit Maximum amount of names
+   * @return Names as 'City, Country', in normalised order
+   */
+  public List<String> findByPrefix(String cityPrefix, int limit) {
+    byte[] prefix = normalize(cityPrefix).getBytes(StandardCharsets.UTF_8);
+    List<String> names = new ArrayList<>();
+    for (int i = this.lowerBound(prefix);
+         i < this.count && names.size() < limit && this.startsWith(i, prefix); i++) {
+      names.add(this.name(i));
+    }
+    return names;
+  }
+
+  public int size() {
+    return this.count;
+  }
+
+  private LocationInfo toLocationInfo(int place) {
+    int position = this.placesStart + place * PLACE_SIZE;
+    int zone = this.buffer.getShort(position + 20) & NO_ZONE;
+    return new LocationInfo(zone == NO_ZONE ? null : this.zones[zone],
+        this.buffer.getFloat(position + 8), this.buffer.getFloat(position + 12));
+  }
+
+  private int population(int place) {
+    return this.buffer.getInt(this.placesStart + place * PLACE_SIZE + 16);
+  }
+
+  private String name(int place) {
+    int position = this.placesStart + place * PLACE_SIZE;
+    byte[] name = new byte[this.buffer.get(position + 23) & 0xFF];
+    int start = this.stringsStart + this.buffer.getInt(position + 4);
+    for (int i = 0; i < name.length; i++) {
+      name[i] = this.buffer.get(start + i);
+    }
+    return new String(name, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Index of the first place whose key is not lower than the given one.
+   * @param key Key bytes
+   * @return Place index, or count if there is none
+   */
+  private int lowerBound(byte[] key) {
+    int low = 0;
+    int high = this.count;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (this.compareKey(middle, key) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private int compareKey(int place, byte[] key) {
+    int position = this.placesStart + place * PLACE_SIZE;
+    int start = this.stringsStart + this.buffer.getInt(position);
+    int length = this.buffer.get(position + 22) & 0xFF;
+    for (int i = 0; i < length && i < key.length; i++) {
+      int diff = (this.buffer.get(start + i) & 0xFF) - (key[i] & 0xFF);
+      if (diff != 0) {
+        return diff;
+      }
+    }
+    return length - key.length;
+  }
+
+  private boolean startsWith(int place, byte[] prefix) {
+    int position = this.placesStart + place * PLACE_SIZE;
+    int start = this.stringsStart + this.buffer.getInt(position);
+    int length = this.buffer.get(position + 22) & 0xFF;
+    if (length < prefix.length) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length; i++) {
+      if (this.buffer.get(start + i) != prefix[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int compare(byte[] first, byte[] second) {
+    for (int i = 0; i < first.length && i < second.length; i++) {
+      int diff = (first[i] & 0xFF) - (second[i] & 0xFF);
+      if (diff != 0) {
+        return diff;
+      }
+    }
+    return first.length - second.length;
+  }
+
+}
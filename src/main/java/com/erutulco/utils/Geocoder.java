@@ -0,0 +1,42 @@
+package com.erutulco.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Source of coordinates, and optionally time zone, of places by city and country.
+ */
+@FunctionalInterface
+public interface Geocoder {
+
+  /**
+   * Find a place.
+   * @param city City string
+   * @param country Country string
+   * @return Location info, with null time zone if unknown, or null if the place is not found
+   * @throws Exception Lookup errors
+   */
+  LocationInfo geocode(String city, String country) throws Exception;
+
+  /**
+   * Find a place without blocking the calling thread.
+   * By default, geocode runs on the given executor.
+   * @param city City string
+   * @param country Country string
+   * @param executor Executor to run the lookup on
+   * @return Future location info, or null if the place is not found; completed exceptionally
+   *     on lookup errors
+   */
+  default CompletableFuture<LocationInfo> geocodeAsync(String city, String country,
+                                                       Executor executor) {
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        return this.geocode(city, country);
+      } catch (Exception e) {
+        throw new CompletionException(e);
+      }
+    }, executor);
+  }
+
+}
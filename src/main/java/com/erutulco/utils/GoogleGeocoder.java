@@ -0,0 +1,46 @@
+package com.erutulco.utils;
+
+import com.google.maps.GeocodingApi;
+import com.google.maps.model.GeocodingResult;
+import com.google.maps.model.LatLng;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Geocoder using the Google Geocoding API, through the shared SunsetUtils Geo API context.
+ * Time zones are not returned, so they are resolved separately.
+ */
+public class GoogleGeocoder implements Geocoder {
+
+  @Override
+  public LocationInfo geocode(String city, String country) throws Exception {
+    LocationInfo info = null;
+    String place = SunsetUtils.makeLocationString(city, country);
+    if (place.length() > 0) {
+      info = toLocationInfo(GeocodingApi.geocode(SunsetUtils.getGeoApiContext(), place).await());
+    }
+    return info;
+  }
+
+  @Override
+  public CompletableFuture<LocationInfo> geocodeAsync(String city, String country,
+                                                      Executor executor) {
+    String place = SunsetUtils.makeLocationString(city, country);
+    if (place.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return SunsetUtils.toFuture(GeocodingApi.geocode(SunsetUtils.getGeoApiContext(), place))
+        .thenApply(GoogleGeocoder::toLocationInfo);
+  }
+
+  private static LocationInfo toLocationInfo(GeocodingResult[] results) {
+    LocationInfo info = null;
+    if (results.length > 0) {
+      LatLng location = results[0].geometry.location;
+      info = new LocationInfo(null, location.lat, location.lng);
+    }
+    return info;
+  }
+
+}
@@ -0,0 +1,63 @@
+package com.erutulco.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * IP address provider asking an HTTP endpoint that answers with the caller address as plain
+ * text, such as api.ipify.org, or a local stub in tests.
+ */
+public class HttpIpAddressProvider implements IpAddressProvider {
+
+  public static final String DEFAULT_URL = "https://api.ipify.org";
+
+  private final URL url;
+  private final int timeoutMillis;
+
+  /**
+   * HTTP IP address provider.
+   * @param url Endpoint URL (i.e.: 'https://api.ipify.org')
+   * @param timeoutMillis Connect and read timeout, in milliseconds
+   */
+  public HttpIpAddressProvider(String url, int timeoutMillis) {
+    try {
+      this.url = new URL(url);
+    } catch (MalformedURLException e) {
+      throw new IllegalArgumentException("Invalid URL: " + url, e);
+    }
+    if (timeoutMillis < 0) {
+      throw new IllegalArgumentException("Invalid timeout: " + timeoutMillis);
+    }
+    this.timeoutMillis = timeoutMillis;
+  }
+
+  @Override
+  public String getIpAddress() throws IOException {
+    HttpURLConnection connection = (HttpURLConnection) this.url.openConnection();
+    connection.setConnectTimeout(this.timeoutMillis);
+    connection.setReadTimeout(this.timeoutMillis);
+    if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+      connection.disconnect();
+      throw new IOException("IP address request failed: " + connection.getResponseCode());
+    }
+    // closing the stream, instead of disconnecting, keeps the connection for reuse
+    try (InputStream is = connection.getInputStream()) {
+      BufferedReader reader = new BufferedReader(
+          new InputStreamReader(is, StandardCharsets.UTF_8));
+      StringBuilder out = new StringBuilder();
+      String line;
+      while ((line = reader.readLine()) != null) {
+        out.append(line);
+      }
+      String ip = out.toString().trim();
+      return ip.isEmpty() ? null : ip;
+    }
+  }
+
+}
@@ -1,13 +1,22 @@
 package com.erutulco.utils;
 
 import java.sql.Time;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
 import java.util.GregorianCalendar;
+import java.util.stream.Stream;
 
 /**
  * ImladrisCalendar class emulating the behavior of
  * GregorianCalendar but for Imladris Reckoning.
  */
-public class ImladrisCalendar {
+public class ImladrisCalendar implements Comparable<ImladrisCalendar> {
 
   /* ************** FIELDS ************** */
 
@@ -128,12 +137,41 @@ public class ImladrisCalendar {
   private static final int[] LENGTH_OF_PERIODS_LEAP = {
       1, 54, 72, 54, 6, 54, 72, 54, 1
   };
+  /**
+   * Period of each day of loa, indexed by day of loa, packed as
+   * {@code monthOfLoa << 12 | period << 8 | dayOfPeriod}, with month 0 out of months.
+   */
+  private static final short[] PERIOD_OF_DAY = buildPeriodOfDayTable(LENGTH_OF_PERIODS);
+  /**
+   * Period of each day of loa in Leap Loas, packed as PERIOD_OF_DAY.
+   */
+  private static final short[] PERIOD_OF_DAY_LEAP = buildPeriodOfDayTable(LENGTH_OF_PERIODS_LEAP);
+  /**
+   * Days of loa before each Loa Period, indexed by period - 1, and the loa length last.
+   */
+  private static final int[] DAYS_BEFORE_PERIOD = buildDaysBeforePeriodTable(LENGTH_OF_PERIODS);
+  /**
+   * Days of loa before each Loa Period in Leap Loas.
+   */
+  private static final int[] DAYS_BEFORE_PERIOD_LEAP =
+      buildDaysBeforePeriodTable(LENGTH_OF_PERIODS_LEAP);
   /**
    * Name of each Week Day.
    */
   private static final String[] DAYS_OF_WEEK = {
       "Elenya", "Anarya", "Isilya", "Aldúya", "Menelya", "Valanya"
   };
+  /**
+   * Roman numerals of every yen, indexed by yen integer.
+   */
+  private static final String[] YEN_NUMERALS = {
+      "", "I", "II", "III", "IV", "V", "VI", "VII", "VIII",
+      "IX", "X", "XI", "XII", "XIII", "XIV", "XV", "XVI"
+  };
+  private static final String[] ROMAN_BASE = {
+      "M", "CM", "D", "CD", "C", "XC", "L", "XL", "X", "IX", "V", "IV", "I"
+  };
+  private static final int[] ARABIC_BASE = {1000, 900, 500, 400, 100, 90, 50, 40, 10, 9, 5, 4, 1};
   /**
    * First Day of the Week of the first Loa in Yen I.
    */
@@ -160,243 +198,326 @@ public class ImladrisCalendar {
       // YEN XVI (loar 140-144 are uncertain)
       {{1, 39, 25}, {40, 139, 26}, {140, 144, 26}}
   };
-
-  /* ************** ATTRIBUTES ************** */
-
-  /**
-   * GregorianCalendar instance to convert to or from Imladris.
-   */
-  private GregorianCalendar gregorian;
-  /**
-   * Flag to check if sunset is set.
-   */
-  private boolean sunsetDefined = false;
-  /**
-   * Time instance with the sunset information.
-   */
-  private Time sunset;
   /**
-   * Integer number for Yen.
+   * Yestarë of every loa in YESTARE_MAP, indexed by the year in which it falls, packed as
+   * {@code epochDay << 10 | (dayOfMarch + 1) << 4 | dayOfWeek << 1 | leap}.
    */
-  private int yenInt;
+  private static final int[] YESTARE_TABLE = buildYestareTable();
   /**
-   * String for current Yen.
+   * Value of pendingEpochDay while the Gregorian calendar is up to date.
    */
-  private String yen;
+  private static final int NO_PENDING_DAY = Integer.MIN_VALUE;
   /**
-   * Integer number for Loa.
+   * Value of secondOfDay to create the Gregorian calendar at the time of day it is created.
    */
-  private int loa;
+  private static final int CURRENT_TIME = -1;
   /**
-   * Integer number for the beginning day of the Loa.
+   * Value of sunsetSecondOfDay while no sunset time is set.
    */
-  private int loaBeginingDay;
-  /**
-   * Integer number for the day of the Loa.
-   */
-  private int dayOfLoa;
-  /**
-   * Flag for leap Loa.
-   */
-  private boolean leapLoa;
-  /**
-   * Integer number for the Period of the Loa.
-   */
-  private int periodOfLoaInt;
+  private static final int NO_SUNSET = -1;
+
+  /* ************** PACKED LAYOUT ************** */
+
+  // fields in the bits of ImladrisDate, below EPOCH_DAY_SHIFT, then the ones of the loa
+  private static final int LEAP_LOA_SHIFT = 42;
+  private static final int IN_MONTH_SHIFT = 43;
+  private static final int MONTH_OF_LOA_SHIFT = 44;
+  private static final int LOA_BEGINNING_DAY_SHIFT = 47;
+  private static final int YESTARE_DAY_OF_WEEK_SHIFT = 53;
   /**
-   * String for the Period of the Loa.
+   * Shift of each field, indexed by field id.
    */
-  private String periodOfLoa;
+  private static final int[] FIELD_SHIFTS = {
+      ImladrisDate.YEN_SHIFT, ImladrisDate.LOA_SHIFT, ImladrisDate.DAY_OF_LOA_SHIFT,
+      ImladrisDate.PERIOD_SHIFT, ImladrisDate.DAY_OF_PERIOD_SHIFT,
+      ImladrisDate.DAY_OF_WEEK_SHIFT, ImladrisDate.WEEK_OF_PERIOD_SHIFT
+  };
   /**
-   * Flag indicating if Period id month or special days.
+   * Mask of each field, once shifted, indexed by field id.
    */
-  private boolean inMonth;
+  private static final int[] FIELD_MASKS = {
+      0x1F, 0xFF, 0x1FF, 0xF, 0x7F, 0x7, 0x3F
+  };
+  private static final long DATE_FIELDS_MASK = (1L << ImladrisDate.EPOCH_DAY_SHIFT) - 1;
   /**
-   * Integer number for the month in the Loa.
+   * Mask of yen, loa and day of loa, once shifted by DAY_OF_LOA_SHIFT, which sort
+   * chronologically as a single number.
    */
-  private int monthOfLoa;
+  private static final long SORT_KEY_MASK = (1L << (ImladrisDate.EPOCH_DAY_SHIFT
+      - ImladrisDate.DAY_OF_LOA_SHIFT)) - 1;
+
+  /* ************** ATTRIBUTES ************** */
+
   /**
-   * Integer number for the day in the Period.
+   * GregorianCalendar instance to convert to or from Imladris. Calendars not built from one
+   * leave it null until asked for, and then create it from the date and secondOfDay.
    */
-  private int dayOfPeriod;
+  private GregorianCalendar gregorian;
   /**
-   * Integer number for the week in the Period.
+   * Second of the day of the Gregorian date and time while it is not created, or CURRENT_TIME.
    */
-  private int weekOfPeriod;
+  private int secondOfDay;
   /**
-   * Integer number for the day of the week.
+   * Epoch day to move the Gregorian calendar to when asked for, after add changed the date,
+   * or NO_PENDING_DAY.
    */
-  private int dayOfWeekInt;
+  private int pendingEpochDay = NO_PENDING_DAY;
   /**
-   * String for the day of the week.
+   * Flag to check if sunset is set.
    */
-  private String dayOfWeek;
+  private boolean sunsetDefined = false;
   /**
-   * Integer number for the week day of Yestarë.
+   * Second of the day at which sunset happens, or NO_SUNSET.
    */
-  private int yestareWeekDayInt;
+  private int sunsetSecondOfDay = NO_SUNSET;
   /**
-   * String for the week day of Yestarë.
+   * Imladris fields, packed: yen, loa, day of loa, period, day of period, week of period and
+   * day of week as in ImladrisDate, and leap loa, in month, month of loa, beginning day of the
+   * loa and week day of Yestarë above them. Names are looked up from them when asked for.
    */
-  private String yestareWeekDay;
+  private long fields;
 
   /* ************** GETTERS & SETTERS ************** */
 
+  /**
+   * Getter of the Gregorian calendar, created from the current date if it was not yet, or
+   * moved to it, keeping its time of day, if add changed the date since last asked for.
+   * @return Gregorian calendar
+   */
   public final GregorianCalendar getGregorian() {
+    if (this.gregorian == null && this.secondOfDay == CURRENT_TIME) {
+      int ymd = EpochDays.toYearMonthDay(this.epochDay());
+      this.gregorian = new GregorianCalendar();
+      this.gregorian.set(EpochDays.year(ymd), EpochDays.month(ymd) - 1,
+          EpochDays.dayOfMonth(ymd));
+    } else if (this.gregorian == null) {
+      int ymd = EpochDays.toYearMonthDay(this.epochDay());
+      this.gregorian = new GregorianCalendar(EpochDays.year(ymd), EpochDays.month(ymd) - 1,
+          EpochDays.dayOfMonth(ymd), this.secondOfDay / 3600, this.secondOfDay / 60 % 60,
+          this.secondOfDay % 60);
+    } else if (this.pendingEpochDay != NO_PENDING_DAY) {
+      int ymd = EpochDays.toYearMonthDay(this.pendingEpochDay);
+      this.gregorian.set(EpochDays.year(ymd), EpochDays.month(ymd) - 1,
+          EpochDays.dayOfMonth(ymd));
+    }
+    this.pendingEpochDay = NO_PENDING_DAY;
     return gregorian;
   }
 
   public final void setGregorian(final GregorianCalendar gregorian) {
     this.gregorian = gregorian;
+    this.pendingEpochDay = NO_PENDING_DAY;
   }
 
   public final boolean isSunsetDefined() {
     return sunsetDefined;
   }
 
+  /**
+   * Turn the sunset on or off. Turning it off keeps its time, to turn it back on later.
+   * @param sunsetDefined Sunset flag
+   * @throws IllegalStateException If turned on and no sunset time was ever set
+   */
   public final void setSunsetDefined(final boolean sunsetDefined) {
+    if (sunsetDefined && this.sunsetSecondOfDay == NO_SUNSET) {
+      throw new IllegalStateException("Sunset time not set");
+    }
     this.sunsetDefined = sunsetDefined;
   }
 
+  /**
+   * Getter of the sunset time.
+   * @return Time of sunset, or null if sunset is not defined
+   */
   public final Time getSunset() {
-    return sunset;
+    LocalTime sunset = this.getSunsetLocalTime();
+    return sunset == null ? null : Time.valueOf(sunset);
+  }
+
+  /**
+   * Getter of the sunset time.
+   * @return Time of sunset, or null if sunset is not defined
+   */
+  public final LocalTime getSunsetLocalTime() {
+    return this.isSunsetDefined() ? LocalTime.ofSecondOfDay(this.sunsetSecondOfDay) : null;
   }
 
   public final void setSunset(final Time sunset) {
+    this.setSunset(sunset.toLocalTime());
+  }
+
+  public final void setSunset(final LocalTime sunset) {
+    this.sunsetSecondOfDay = sunset.toSecondOfDay();
     this.setSunsetDefined(true);
-    this.sunset = sunset;
   }
 
   public final int getYenInt() {
-    return yenInt;
+    return this.getField(ImladrisDate.YEN_SHIFT, 0x1F);
   }
 
   public final String getYen() {
-    return this.yen;
+    return toRoman(this.getYenInt());
   }
 
   public final int getLoa() {
-    return loa;
+    return this.getField(ImladrisDate.LOA_SHIFT, 0xFF);
   }
 
   public final int getLoaBeginingDay() {
-    return loaBeginingDay;
+    return this.getField(LOA_BEGINNING_DAY_SHIFT, 0x3F);
   }
 
   public final int getDayOfLoa() {
-    return dayOfLoa;
+    return this.getField(ImladrisDate.DAY_OF_LOA_SHIFT, 0x1FF);
   }
 
   public final boolean isLeapLoa() {
-    return leapLoa;
+    return this.getField(LEAP_LOA_SHIFT, 0x1) != 0;
   }
 
   public final int getPeriodOfLoaInt() {
-    return periodOfLoaInt;
+    return this.getField(ImladrisDate.PERIOD_SHIFT, 0xF);
   }
 
   public final String getPeriodOfLoa() {
-    return periodOfLoa;
+    return periodName(this.getPeriodOfLoaInt());
   }
 
   public final boolean isInMonth() {
-    return inMonth;
+    return this.getField(IN_MONTH_SHIFT, 0x1) != 0;
   }
 
   public final int getMonthOfLoa() {
-    return monthOfLoa;
+    return this.getField(MONTH_OF_LOA_SHIFT, 0x7);
   }
 
   public final int getDayOfPeriod() {
-    return dayOfPeriod;
+    return this.getField(ImladrisDate.DAY_OF_PERIOD_SHIFT, 0x7F);
   }
 
   public final int getWeekOfPeriod() {
-    return weekOfPeriod;
+    return this.getField(ImladrisDate.WEEK_OF_PERIOD_SHIFT, 0x3F);
   }
 
   public final int getDayOfWeekInt() {
-    return dayOfWeekInt;
+    return this.getField(ImladrisDate.DAY_OF_WEEK_SHIFT, 0x7);
   }
 
   public final String getDayOfWeek() {
-    return dayOfWeek;
+    return dayOfWeekName(this.getDayOfWeekInt());
   }
 
   public final int getYestareWeekDayInt() {
-    return yestareWeekDayInt;
+    return this.getField(YESTARE_DAY_OF_WEEK_SHIFT, 0x7);
   }
 
   public final String getYestareWeekDay() {
-    return yestareWeekDay;
+    return dayOfWeekName(this.getYestareWeekDayInt());
   }
 
   public final void setYenInt(final int yenInt) {
-    this.setYen(this.intToRoman(yenInt));
-    this.yenInt = yenInt;
+    this.setField(ImladrisDate.YEN_SHIFT, 0x1F, yenInt, "yen");
   }
 
   public final void setYen(final String yen) {
-    this.yen = yen;
+    this.setYenInt(yenOf(yen));
   }
 
   public final void setLoa(final int loa) {
-    this.loa = loa;
+    this.setField(ImladrisDate.LOA_SHIFT, 0xFF, loa, "loa");
   }
 
   public final void setLoaBeginingDay(final int loaBeginingDay) {
-    this.loaBeginingDay = loaBeginingDay;
+    this.setField(LOA_BEGINNING_DAY_SHIFT, 0x3F, loaBeginingDay, "loa beginning day");
   }
 
   public final void setDayOfLoa(final int dayOfLoa) {
-    this.dayOfLoa = dayOfLoa;
+    this.setField(ImladrisDate.DAY_OF_LOA_SHIFT, 0x1FF, dayOfLoa, "day of loa");
   }
 
   public final void setLeapLoa(final boolean leapLoa) {
-    this.leapLoa = leapLoa;
+    this.setField(LEAP_LOA_SHIFT, 0x1, leapLoa ? 1 : 0, "leap loa");
   }
 
   public final void setPeriodOfLoaInt(final int periodOfLoaInt) {
-    this.setPeriodOfLoa(PERIODS_OF_LOA[periodOfLoaInt - 1]);
-    this.periodOfLoaInt = periodOfLoaInt;
+    this.setField(ImladrisDate.PERIOD_SHIFT, 0xF, periodOfLoaInt, "period");
   }
 
   public final void setPeriodOfLoa(final String periodOfLoa) {
-    this.periodOfLoa = periodOfLoa;
+    this.setPeriodOfLoaInt(indexOfName(PERIODS_OF_LOA, periodOfLoa, "period"));
   }
 
   public final void setInMonth(final boolean inMonth) {
-    this.inMonth = inMonth;
+    this.setField(IN_MONTH_SHIFT, 0x1, inMonth ? 1 : 0, "in month");
   }
 
   public final void setMonthOfLoa(final int monthOfLoa) {
-    this.monthOfLoa = monthOfLoa;
+    this.setField(MONTH_OF_LOA_SHIFT, 0x7, monthOfLoa, "month of loa");
   }
 
   public final void setDayOfPeriod(final int dayOfPeriod) {
-    this.dayOfPeriod = dayOfPeriod;
+    this.setField(ImladrisDate.DAY_OF_PERIOD_SHIFT, 0x7F, dayOfPeriod, "day of period");
   }
 
   public final void setWeekOfPeriod(final int weekOfPeriod) {
-    this.weekOfPeriod = weekOfPeriod;
+    this.setField(ImladrisDate.WEEK_OF_PERIOD_SHIFT, 0x3F, weekOfPeriod, "week of period");
   }
 
   public final void setDayOfWeekInt(final int dayOfWeekInt) {
-    this.setDayOfWeek(DAYS_OF_WEEK[dayOfWeekInt - 1]);
-    this.dayOfWeekInt = dayOfWeekInt;
+    this.setField(ImladrisDate.DAY_OF_WEEK_SHIFT, 0x7, dayOfWeekInt, "day of week");
   }
 
   public final void setDayOfWeek(final String dayOfWeek) {
-    this.dayOfWeek = dayOfWeek;
+    this.setDayOfWeekInt(indexOfName(DAYS_OF_WEEK, dayOfWeek, "day of week"));
   }
 
   public final void setYestareWeekDayInt(final int yestareWeekDayInt) {
-    this.setYestareWeekDay(DAYS_OF_WEEK[yestareWeekDayInt - 1]);
-    this.yestareWeekDayInt = yestareWeekDayInt;
+    this.setField(YESTARE_DAY_OF_WEEK_SHIFT, 0x7, yestareWeekDayInt, "Yestarë week day");
   }
 
   public final void setYestareWeekDay(final String yestareWeekDay) {
-    this.yestareWeekDay = yestareWeekDay;
+    this.setYestareWeekDayInt(indexOfName(DAYS_OF_WEEK, yestareWeekDay, "Yestarë week day"));
+  }
+
+  /**
+   * Packed fields, in the layout of ImladrisDate without epoch day.
+   * @return Packed fields
+   */
+  long getPackedFields() {
+    return this.fields & DATE_FIELDS_MASK;
+  }
+
+  private int getField(int shift, int mask) {
+    return (int) (this.fields >>> shift) & mask;
+  }
+
+  private void setField(int shift, int mask, int value, String name) {
+    if ((value & ~mask) != 0) {
+      throw new IllegalArgumentException("Invalid " + name + ": " + value);
+    }
+    this.fields = (this.fields & ~((long) mask << shift)) | ((long) value << shift);
+  }
+
+  private static int yenOf(String yen) {
+    for (int i = 0; i < yen.length(); i++) {
+      if (romanCharToInt(yen.charAt(i)) == 0) {
+        throw new IllegalArgumentException("Invalid yen: " + yen);
+      }
+    }
+    int yenInt = fromRoman(yen, 0, yen.length());
+    if (yenInt == 0) {
+      throw new IllegalArgumentException("Invalid yen: " + yen);
+    }
+    return yenInt;
+  }
+
+  private static int indexOfName(String[] names, String name, String field) {
+    for (int i = 0; i < names.length; i++) {
+      if (names[i].equals(name)) {
+        return i + 1;
+      }
+    }
+    throw new IllegalArgumentException("Invalid " + field + ": " + name);
   }
 
   /**
@@ -414,6 +535,14 @@ public class ImladrisCalendar {
     this(sunset, new GregorianCalendar());
   }
 
+  /**
+   * Constructor with today's date with sunset.
+   * @param sunset Time of sunset
+   */
+  public ImladrisCalendar(LocalTime sunset) {
+    this(sunset, new GregorianCalendar());
+  }
+
   /**
    * Constructor from Gregorian date.
    * @param gregorian Gregorian date to convert
@@ -438,6 +567,15 @@ public class ImladrisCalendar {
    * @param gregorian Gregorian date to convert
    */
   public ImladrisCalendar(Time sunset, GregorianCalendar gregorian) {
+    this(sunset.toLocalTime(), gregorian);
+  }
+
+  /**
+   * Constructor from Gregorian date with sunset.
+   * @param sunset Time of sunset
+   * @param gregorian Gregorian date to convert
+   */
+  public ImladrisCalendar(LocalTime sunset, GregorianCalendar gregorian) {
     this.setSunset(sunset);
     this.setGregorian(
         new GregorianCalendar(
@@ -489,6 +627,17 @@ public class ImladrisCalendar {
    * @param dayOfMonth Day of the month
    */
   public ImladrisCalendar(Time sunset, int year, int month, int dayOfMonth) {
+    this(sunset.toLocalTime(), year, month, dayOfMonth);
+  }
+
+  /**
+   *Constructor from specified sunset, date and time arguments.
+   * @param sunset Time of sunset
+   * @param year Year
+   * @param month Month is 1-based indexed (1-12|January-December)
+   * @param dayOfMonth Day of the month
+   */
+  public ImladrisCalendar(LocalTime sunset, int year, int month, int dayOfMonth) {
     this.setSunset(sunset);
     this.setGregorian(
         new GregorianCalendar(year, month - 1, dayOfMonth, 0, 0, 1)
@@ -507,6 +656,20 @@ public class ImladrisCalendar {
    */
   public ImladrisCalendar(Time sunset, int year, int month, int dayOfMonth,
                           int hourOfDay, int minute) {
+    this(sunset.toLocalTime(), year, month, dayOfMonth, hourOfDay, minute);
+  }
+
+  /**
+   *Constructor from specified sunset, date and time arguments.
+   * @param sunset Time of sunset
+   * @param year Year
+   * @param month Month is 1-based indexed (1-12|January-December)
+   * @param dayOfMonth Day of the month
+   * @param hourOfDay Hour of day (0-23)
+   * @param minute Minutes (0-59)
+   */
+  public ImladrisCalendar(LocalTime sunset, int year, int month, int dayOfMonth,
+                          int hourOfDay, int minute) {
     this.setSunset(sunset);
     this.setGregorian(
         new GregorianCalendar(year, month - 1, dayOfMonth, hourOfDay, minute, 1)
@@ -526,6 +689,21 @@ public class ImladrisCalendar {
    */
   public ImladrisCalendar(Time sunset, int year, int month, int dayOfMonth,
                           int hourOfDay, int minute, int second) {
+    this(sunset.toLocalTime(), year, month, dayOfMonth, hourOfDay, minute, second);
+  }
+
+  /**
+   * Constructor from specified sunset, date and time arguments.
+   * @param sunset Time of sunset
+   * @param year Year
+   * @param month Month is 1-based indexed (1-12|January-December)
+   * @param dayOfMonth Day of the month
+   * @param hourOfDay Hour of day (0-23)
+   * @param minute Minutes (0-59)
+   * @param second Seconds (0-59)
+   */
+  public ImladrisCalendar(LocalTime sunset, int year, int month, int dayOfMonth,
+                          int hourOfDay, int minute, int second) {
     this.setSunset(sunset);
     this.setGregorian(
         new GregorianCalendar(year, month - 1, dayOfMonth, hourOfDay, minute, second)
@@ -547,24 +725,233 @@ public class ImladrisCalendar {
 
   /**
    * Constructor from Imladris Reckoning date arguments for any Period.
+   * The Gregorian calendar is created when asked for, at the time of day it is asked for.
    * @param yen Yen string (i.e.: 'I', 'IV')
    * @param loa Loa integer
    * @param period Period integer
    * @param day Day in Period integer
    */
   public ImladrisCalendar(String yen, int loa, int period, int day) {
-    this.setYenInt(this.romanToInt(yen));
+    this.setYenInt(yenOf(yen));
     this.setLoa(loa);
     this.setPeriodOfLoaInt(period);
     this.setDayOfPeriod(day);
-    this.setGregorian(new GregorianCalendar());
+    this.secondOfDay = CURRENT_TIME;
     this.updateFromYenLoaPeriodAndDayOfPeriod();
   }
 
+  /**
+   * Constructor from an immutable Imladris date.
+   * The Gregorian calendar is created when asked for, at 00:00:01.
+   * @param date Imladris date
+   */
+  public ImladrisCalendar(ImladrisDate date) {
+    this.secondOfDay = 1;
+    this.updateFromDate(date);
+  }
+
+  /**
+   * Constructor from an epoch day and time of day, without creating a GregorianCalendar.
+   * @param epochDay Days since 1970-01-01, as in LocalDate
+   * @param secondOfDay Second of the day
+   * @param sunset Time of sunset, or null if not defined
+   */
+  private ImladrisCalendar(long epochDay, int secondOfDay, LocalTime sunset) {
+    long day = epochDay;
+    this.secondOfDay = secondOfDay;
+    if (sunset != null) {
+      this.setSunset(sunset);
+      if (this.sunsetHasPassed(secondOfDay)) {
+        day++;
+        this.secondOfDay = secondOfDay % 3600;
+      }
+    }
+    if (day < ImladrisDate.MIN_EPOCH_DAY || day > ImladrisDate.MAX_EPOCH_DAY) {
+      throw new IllegalArgumentException("Epoch day out of supported range: " + day);
+    }
+    this.calculateFromEpochDay((int) day);
+  }
+
+  /**
+   * Obtain the calendar of a local date, at 00:00:01 as the other date constructors.
+   * LocalDate is proleptic Gregorian, so dates before 1582-10-15 are matched by
+   * the actual day, as in ImladrisDate.from.
+   * @param date Local date
+   * @return Imladris calendar
+   */
+  public static ImladrisCalendar from(LocalDate date) {
+    return new ImladrisCalendar(date.toEpochDay(), 1, null);
+  }
+
+  /**
+   * Obtain the calendar of a local date and time.
+   * @param dateTime Local date and time
+   * @return Imladris calendar
+   */
+  public static ImladrisCalendar from(LocalDateTime dateTime) {
+    return new ImladrisCalendar(dateTime.toLocalDate().toEpochDay(),
+        dateTime.toLocalTime().toSecondOfDay(), null);
+  }
+
+  /**
+   * Obtain the calendar of a local date and time with sunset.
+   * @param sunset Time of sunset
+   * @param dateTime Local date and time
+   * @return Imladris calendar
+   */
+  public static ImladrisCalendar from(LocalTime sunset, LocalDateTime dateTime) {
+    return new ImladrisCalendar(dateTime.toLocalDate().toEpochDay(),
+        dateTime.toLocalTime().toSecondOfDay(), sunset);
+  }
+
+  /**
+   * Obtain the calendar of an instant, at its local date and time in the given time zone.
+   * @param instant Instant
+   * @param zone Time zone in which to take the date and time
+   * @return Imladris calendar
+   */
+  public static ImladrisCalendar from(Instant instant, ZoneId zone) {
+    long localSecond = instant.getEpochSecond()
+        + zone.getRules().getOffset(instant).getTotalSeconds();
+    return new ImladrisCalendar(Math.floorDiv(localSecond, 86400L),
+        (int) Math.floorMod(localSecond, 86400L), null);
+  }
+
+  /**
+   * Obtain the calendar of an instant with sunset, at its local date and time in the given
+   * time zone, in which sunset is taken too.
+   * @param sunset Time of sunset
+   * @param instant Instant
+   * @param zone Time zone in which to take the date and time
+   * @return Imladris calendar
+   */
+  public static ImladrisCalendar from(LocalTime sunset, Instant instant, ZoneId zone) {
+    long localSecond = instant.getEpochSecond()
+        + zone.getRules().getOffset(instant).getTotalSeconds();
+    return new ImladrisCalendar(Math.floorDiv(localSecond, 86400L),
+        (int) Math.floorMod(localSecond, 86400L), sunset);
+  }
+
   /* ************* API Methods ************* */
 
+  /**
+   * Get an immutable copy of the current date.
+   * @return Imladris date
+   */
+  public ImladrisDate toImladrisDate() {
+    int y = (this.getYenInt() - 1) * 144 + this.getLoa();
+    return ImladrisDate.ofEpochDay(yestareEpochDay(y) + this.getDayOfLoa() - 1);
+  }
+
+  /**
+   * Get the Gregorian day of the current date, without creating a GregorianCalendar.
+   * It is the day of getGregorian, so the day after the given one once sunset has passed.
+   * @return Local date
+   */
+  public LocalDate toLocalDate() {
+    return LocalDate.ofEpochDay(this.epochDay());
+  }
+
+  /**
+   * Get the day of the current date, without creating a GregorianCalendar.
+   * @return Days since 1970-01-01, as in LocalDate
+   */
+  public long toEpochDay() {
+    return this.epochDay();
+  }
+
+  /**
+   * Stream of calendars for consecutive dates, such as every day of a loa or a yen.
+   * The fields of each date are derived from the previous one, and the stream splits on
+   * loa boundaries, so it can be processed in parallel.
+   * @param startInclusive First date
+   * @param endExclusive Date after the last one
+   * @return Ordered stream of calendars
+   */
+  public static Stream<ImladrisCalendar> range(ImladrisDate startInclusive,
+                                               ImladrisDate endExclusive) {
+    return ImladrisDate.range(startInclusive, endExclusive).map(ImladrisCalendar::new);
+  }
+
+  /**
+   * Convert many instants at once, writing yen, loa and day of loa of each of them
+   * into consecutive positions of 'outFields' (3 * i, 3 * i + 1 and 3 * i + 2).
+   * No object is created per instant, and the time zone offset and the loa found are
+   * reused while the following instants fall within them, so sorted input is fastest.
+   * @param epochMillis Instants to convert, in milliseconds since 1970-01-01T00:00Z
+   * @param zone Time zone in which to take the date of each instant
+   * @param outFields Array of at least 3 * epochMillis.length to write the fields to
+   */
+  public static void convertAll(long[] epochMillis, ZoneId zone, int[] outFields) {
+    if (outFields.length < epochMillis.length * 3) {
+      throw new IllegalArgumentException("Output array too short: " + outFields.length);
+    }
+    ZoneRules rules = zone.getRules();
+    // instants in which the current offset is known to apply: [offsetFrom, offsetUntil)
+    long offsetFrom = Long.MAX_VALUE;
+    long offsetUntil = Long.MIN_VALUE;
+    long offsetMillis = 0;
+    // epoch days of the current loa: [loaFrom, loaUntil)
+    int loaFrom = Integer.MAX_VALUE;
+    int loaUntil = Integer.MIN_VALUE;
+    int yen = 0;
+    int loa = 0;
+    for (int i = 0; i < epochMillis.length; i++) {
+      long millis = epochMillis[i];
+      if (millis < offsetFrom || millis >= offsetUntil) {
+        Instant instant = Instant.ofEpochMilli(millis);
+        offsetMillis = rules.getOffset(instant).getTotalSeconds() * 1000L;
+        offsetFrom = millis;
+        offsetUntil = Long.MAX_VALUE;
+        if (!rules.isFixedOffset()) {
+          ZoneOffsetTransition next = rules.nextTransition(instant);
+          if (next != null) {
+            offsetUntil = next.toEpochSecond() * 1000L;
+          }
+        }
+      }
+      long day = Math.floorDiv(millis + offsetMillis, 86400000L);
+      if (day < loaFrom || day >= loaUntil) {
+        if (day < ImladrisDate.MIN_EPOCH_DAY || day > ImladrisDate.MAX_EPOCH_DAY) {
+          throw new IllegalArgumentException("Instant out of supported range: " + millis);
+        }
+        int y = loaYear((int) day);
+        yen = calculateYen(y);
+        loa = calculateLoa(y);
+        loaFrom = yestareEpochDay(y);
+        loaUntil = loaFrom + loaLength(y);
+      }
+      outFields[3 * i] = yen;
+      outFields[3 * i + 1] = loa;
+      outFields[3 * i + 2] = (int) day - loaFrom + 1;
+    }
+  }
+
+  /**
+   * Sort calendars chronologically, keeping the order of the ones of the same date.
+   * Dates are sorted as primitive keys, without comparing calendars.
+   * @param calendars Calendars to sort
+   */
+  public static void sort(ImladrisCalendar[] calendars) {
+    long[] keys = new long[calendars.length];
+    for (int i = 0; i < calendars.length; i++) {
+      keys[i] = (calendars[i].sortKey() << 32) | i;
+    }
+    Arrays.sort(keys);
+    ImladrisCalendar[] sorted = new ImladrisCalendar[calendars.length];
+    for (int i = 0; i < keys.length; i++) {
+      sorted[i] = calendars[(int) keys[i]];
+    }
+    System.arraycopy(sorted, 0, calendars, 0, sorted.length);
+  }
+
+  /**
+   * Check if current instance is before the provided one.
+   * @param cal Calendar to compare against
+   * @return Result of comparison
+   */
   public boolean before(ImladrisCalendar cal) {
-    return !this.same(cal) && !this.after(cal);
+    return this.compareTo(cal) < 0;
   }
 
   /**
@@ -573,13 +960,7 @@ public class ImladrisCalendar {
    * @return Result of comparison
    */
   public boolean same(ImladrisCalendar cal) {
-    boolean same = false;
-    if (this.getYenInt() == cal.getYenInt()
-        && this.getLoa() == cal.getLoa()
-        && this.getDayOfLoa() == cal.getDayOfLoa()) {
-      same = true;
-    }
-    return same;
+    return this.compareTo(cal) == 0;
   }
 
   /**
@@ -588,19 +969,41 @@ public class ImladrisCalendar {
    * @return Result of comparison
    */
   public boolean after(ImladrisCalendar cal) {
-    boolean after = false;
-    if (this.getYenInt() < cal.getYenInt()) {
-      after = true;
-    } else if (this.getYenInt() == cal.getYenInt()) {
-      if (this.getLoa() < cal.getLoa()) {
-        after = true;
-      } else if (this.getLoa() == cal.getLoa()) {
-        if (this.getDayOfLoa() < cal.getDayOfLoa()) {
-          after = true;
-        }
-      }
-    }
-    return after;
+    return this.compareTo(cal) > 0;
+  }
+
+  /**
+   * Compare to other ImladrisCalendar instance, chronologically by Imladris date, regardless
+   * of time of day or sunset.
+   * @param cal Calendar to compare to
+   * @return Negative, zero or positive if before, same or after other
+   */
+  @Override
+  public int compareTo(ImladrisCalendar cal) {
+    return Long.compare(this.sortKey(), cal.sortKey());
+  }
+
+  /**
+   * Check if the other object is a calendar of the same Imladris date, as in same.
+   * @param obj Object to compare to
+   * @return Result of comparison
+   */
+  @Override
+  public boolean equals(Object obj) {
+    return obj instanceof ImladrisCalendar && ((ImladrisCalendar) obj).sortKey() == this.sortKey();
+  }
+
+  @Override
+  public int hashCode() {
+    return (int) this.sortKey();
+  }
+
+  /**
+   * Yen, loa and day of loa as a single number, in chronological order.
+   * @return Sort key
+   */
+  private long sortKey() {
+    return (this.fields >>> ImladrisDate.DAY_OF_LOA_SHIFT) & SORT_KEY_MASK;
   }
 
   /**
@@ -610,68 +1013,74 @@ public class ImladrisCalendar {
    */
   public int get(int field) {
     int value = -1;
-    switch (field) {
-      case YEN:
-        value = this.getYenInt();
-        break;
-      case LOA:
-        value = this.getLoa();
-        break;
-      case DAY_OF_LOA:
-        value = this.getDayOfLoa();
-        break;
-      case PERIOD:
-        value = this.getPeriodOfLoaInt();
-        break;
-      case DAY_OF_PERIOD:
-        value = this.getDayOfPeriod();
-        break;
-      case DAY_OF_WEEK:
-        value = this.getDayOfWeekInt();
-        break;
-      case WEEK_OF_PERIOD:
-        value = this.getWeekOfPeriod();
-        break;
-      default:
-        break;
+    if (field >= 0 && field < FIELD_SHIFTS.length) {
+      value = this.getField(FIELD_SHIFTS[field], FIELD_MASKS[field]);
     }
     return value;
   }
 
   /**
-   * Add 'amount' to 'field'.
-   * Precondition: adding 'amount' must not overflow current 'field' state
+   * Add 'amount' to 'field', which may be negative, in constant time.
+   * Days of loa, of period and of week move the date by that many days, and weeks of period
+   * by six days each. Periods, loar and yen keep the day of period, clamped to the length of
+   * the resulting period (i.e.: Enderi 6 of a leap loa plus one loa is Enderi 3).
+   * A few loar end early, when Yestarë of the next yen moves back: loa 144 of yen III, VI, IX,
+   * XII and XV ends on Coirë 52, and XVI 139 on Coirë 54. Landing after their last day, on
+   * Mettarë or on a missing day of Coirë, gives that last day, so the period can change
+   * (i.e.: Yávië 9, XVI 138 plus 14 periods is Coirë 54, XVI 139).
    * @param field Id of the index field to add to
    * @param amount Amount of the type of field to add
+   * @throws IllegalArgumentException If the result is out of the supported range
    */
   public void add(int field, int amount) {
+    long epochDay = this.epochDay();
     switch (field) {
       case YEN:
-        this.setYenInt(this.getYenInt() + amount);
-        this.updateGregorian();
+        epochDay = this.addPeriods(amount * 144L * METTARE);
         break;
       case LOA:
-        int loa = this.getLoa() + amount;
-        this.add(YEN, (int) Math.floor(loa / 144));
-        this.setLoa(loa % 144);
-        this.updateGregorian();
+        epochDay = this.addPeriods(amount * (long) METTARE);
         break;
       case PERIOD:
+        epochDay = this.addPeriods(amount);
         break;
       case DAY_OF_LOA:
       case DAY_OF_PERIOD:
       case DAY_OF_WEEK:
-        int dayOfLoa = this.getDayOfLoa() + amount;
-        this.add(LOA, (int) Math.floor(dayOfLoa / 365));
-        this.setDayOfLoa(dayOfLoa % 365);
-        this.updateFromYenLoaAndDayOfLoa();
+        epochDay += amount;
         break;
       case WEEK_OF_PERIOD:
-        this.add(DAY_OF_LOA, amount * 6);
+        epochDay += amount * 6L;
         break;
       default:
-        break;
+        throw new IllegalArgumentException("Invalid field: " + field);
+    }
+    if (epochDay < ImladrisDate.MIN_EPOCH_DAY || epochDay > ImladrisDate.MAX_EPOCH_DAY) {
+      throw new IllegalArgumentException("Result out of supported range: " + amount);
+    }
+    this.calculateFromEpochDay((int) epochDay);
+    // the Gregorian calendar follows when asked for
+    this.pendingEpochDay = (int) epochDay;
+  }
+
+  /**
+   * Epoch day of the date after adding periods, keeping the day of period if it exists, or
+   * else the last day of the period, or of the loa if it ends before.
+   * @param amount Periods to add
+   * @return Epoch day, out of the supported range if the resulting loa is
+   */
+  private long addPeriods(long amount) {
+    long index = ((this.getYenInt() - 1) * 144L + this.getLoa()) * METTARE
+        + this.getPeriodOfLoaInt() - 1 + amount;
+    long y = Math.floorDiv(index, METTARE);
+    if (y < 1 || y >= YESTARE_TABLE.length) {
+      return y < 1 ? Long.MIN_VALUE : Long.MAX_VALUE;
     }
+    int period = (int) Math.floorMod(index, METTARE) + 1;
+    boolean leap = isLeapYear((int) y);
+    int dayOfPeriod = Math.min(this.getDayOfPeriod(), lengthOfPeriod(period, leap));
+    int dayOfLoa = Math.min(calculateDayOfLoa(period, dayOfPeriod, leap), loaLength((int) y));
+    return yestareEpochDay((int) y) + dayOfLoa - 1L;
   }
 
   /**
@@ -680,8 +1089,12 @@ public class ImladrisCalendar {
    * @return Length of period
    */
   public int lengthOfPeriod(int period) {
+    return lengthOfPeriod(period, this.isLeapLoa());
+  }
+
+  static int lengthOfPeriod(int period, boolean leap) {
     int[] lengths = LENGTH_OF_PERIODS;
-    if (this.isLeapLoa()) {
+    if (leap) {
       lengths = LENGTH_OF_PERIODS_LEAP;
     }
     return lengths[period - 1];
@@ -705,44 +1118,26 @@ public class ImladrisCalendar {
     int yen = this.getYenInt();
     int loa = this.getLoa();
     int y = (yen - 1) * 144 + loa;
-    int loaBeg = this.loaBeginningDay(y);
+    int loaBeg = loaBeginningDay(y);
     this.setLoaBeginingDay(loaBeg);
     // calculate if is leap loa
-    boolean isLeapLoa = this.checkIfLeapLoa(loa);
+    boolean isLeapLoa = checkIfLeapLoa(loa);
     // calculate day of Loa
-    int[] values = ImladrisCalendar.LENGTH_OF_PERIODS;
-    if (isLeapLoa) {
-      values = ImladrisCalendar.LENGTH_OF_PERIODS_LEAP;
-    }
     int period = this.getPeriodOfLoaInt();
-    int daysOfLoa = 0;
-    for (int i = ImladrisCalendar.YESTARE; i < period; i++) {
-      daysOfLoa += values[i - 1];
-    }
-    daysOfLoa += this.getDayOfPeriod();
-    // if sunset defined, check if has passed
-    if (this.isSunsetDefined()) {
-      GregorianCalendar cal = this.getGregorian();
-      String str = cal.get(GregorianCalendar.HOUR_OF_DAY) + ":"
-          + cal.get(GregorianCalendar.MINUTE) + ":"
-          + cal.get(GregorianCalendar.SECOND);
-      Time time = Time.valueOf(str);
-      if (!time.before(this.getSunset())) {
-        daysOfLoa++;
-      }
-    }
+    // sunset is never defined yet, and the time of day is only read with the Gregorian calendar
+    int daysOfLoa = calculateDayOfLoa(period, this.getDayOfPeriod(), isLeapLoa);
     // calculate current week in month (if any), and day of week
     boolean isMonth = false;
     int month = 0;
-    if (this.periodIsMonth(period)) {
+    if (periodIsMonth(period)) {
       isMonth = true;
-      month = this.calculateMonthFromPeriod(period);
+      month = calculateMonthFromPeriod(period);
     }
-    int[] weekInfo = this.calculateWeekAndDayOfWeek(yen, loa, daysOfLoa);
+    int[] weekInfo = calculateWeekAndDayOfWeek(yen, loa, daysOfLoa);
     int weekOfPeriod = weekInfo[0];
     int dayOfWeek = weekInfo[1];
     int yestareWeekDay = weekInfo[2];
-    // store data and return
+    // store data and return, the Gregorian calendar is created from them when asked for
     this.setDayOfLoa(daysOfLoa);
     this.setLeapLoa(isLeapLoa);
     this.setInMonth(isMonth);
@@ -750,129 +1145,132 @@ public class ImladrisCalendar {
     this.setWeekOfPeriod(weekOfPeriod);
     this.setDayOfWeekInt(dayOfWeek);
     this.setYestareWeekDayInt(yestareWeekDay);
-
-    this.updateGregorian();
   }
 
   /**
-   * With yen, loa and dayOfLoa set, update the rest.
+   * Epoch day of the current date, from yen, loa and day of loa.
+   * @return Epoch day
    */
-  private void updateFromYenLoaAndDayOfLoa() {
-    int yen = this.getYenInt();
-    int loa = this.getLoa();
-    int dayOfLoa = this.getDayOfLoa();
-    int y = (yen - 1) * 144 + loa;
-    // calculate day of march of year 'y' in which loa begins
-    int loaBeg = this.loaBeginningDay(y);
-    // calculate if is leap loa
-    boolean isLeapLoa = this.checkIfLeapLoa(loa);
-    // calculate current month and day of month
-    int[] periodInfo = this.calculatePeriodAndDayInPeriod(dayOfLoa, isLeapLoa);
-    int period = periodInfo[0];
-    int dayOfPeriod = periodInfo[1];
-    // calculate current week in month (if any), and day of week
-    boolean isMonth = false;
-    int month = 0;
-    if (this.periodIsMonth(period)) {
-      isMonth = true;
-      month = this.calculateMonthFromPeriod(period);
-    }
-    int[] weekInfo = this.calculateWeekAndDayOfWeek(yen, loa, dayOfLoa);
-    int weekOfPeriod = weekInfo[0];
-    int dayOfWeek = weekInfo[1];
-    int yestareWeekDay = weekInfo[2];
-    // store data and return
-    this.setDayOfPeriod(dayOfPeriod);
-    this.setLoaBeginingDay(loaBeg);
-    this.setLeapLoa(isLeapLoa);
-    this.setPeriodOfLoaInt(period);
-    this.setInMonth(isMonth);
-    this.setMonthOfLoa(month);
-    this.setWeekOfPeriod(weekOfPeriod);
-    this.setDayOfWeekInt(dayOfWeek);
-    this.setYestareWeekDayInt(yestareWeekDay);
-
-    this.updateGregorian();
-  }
-
-  private void updateGregorian() {
-    int yen = this.getYenInt();
-    int loa = this.getLoa();
-    int dayOfLoa = this.getDayOfLoa();
-    GregorianCalendar cal = this.getGregorian();
-    cal.set(GregorianCalendar.YEAR, (yen - 1) * 144 + loa);
-    cal.set(GregorianCalendar.MONTH, GregorianCalendar.MARCH);
-    cal.set(GregorianCalendar.DAY_OF_MONTH, this.getLoaBeginingDay());
-    cal.add(GregorianCalendar.DAY_OF_YEAR, dayOfLoa - 1);
+  private int epochDay() {
+    int y = (this.getYenInt() - 1) * 144 + this.getLoa();
+    return yestareEpochDay(y) + this.getDayOfLoa() - 1;
   }
 
   private void calculate(GregorianCalendar cal) {
     // if sunset defined, check if has passed
-    if (this.isSunsetDefined()) {
-      String str = cal.get(GregorianCalendar.HOUR_OF_DAY) + ":"
-          + cal.get(GregorianCalendar.MINUTE) + ":"
-          + cal.get(GregorianCalendar.SECOND);
-      Time time = Time.valueOf(str);
-      if (!time.before(this.getSunset())) {
-        cal.add(GregorianCalendar.DAY_OF_MONTH, 1);
-        cal.set(GregorianCalendar.HOUR_OF_DAY, 0);
-      }
+    if (this.sunsetHasPassed(cal)) {
+      cal.add(GregorianCalendar.DAY_OF_MONTH, 1);
+      cal.set(GregorianCalendar.HOUR_OF_DAY, 0);
     }
-    int y = cal.get(GregorianCalendar.YEAR);
-    // calculate day of march of year 'y' in which loa begins
-    int loaBeg = this.loaBeginningDay(y);
-    GregorianCalendar loaCal = new GregorianCalendar(y, GregorianCalendar.MARCH, loaBeg);
-    // if that day hasn't come yet, use previous year's loa
-    if (cal.before(loaCal)) {
-      y = y - 1;
-      loaBeg = this.loaBeginningDay(y);
+    this.calculateFromEpochDay(EpochDays.of(cal));
+  }
+
+  /**
+   * With the epoch day of the Gregorian date set, calculate every Imladris field.
+   * Days outside the supported range are rejected, as their fields would not fit.
+   * @param epochDay Epoch day of the date to convert
+   */
+  private void calculateFromEpochDay(int epochDay) {
+    if (epochDay < ImladrisDate.MIN_EPOCH_DAY || epochDay > ImladrisDate.MAX_EPOCH_DAY) {
+      throw new IllegalArgumentException("Epoch day out of supported range: " + epochDay);
     }
+    int y = loaYear(epochDay);
     // calculate loa
-    int loa = this.calculateLoa(y);
+    int loa = calculateLoa(y);
     // calculate if is leap loa
-    boolean isLeapLoa = this.checkIfLeapLoa(loa);
+    boolean isLeapLoa = isLeapYear(y);
     // get amount of days of ongoing loa
-    loaCal.set(GregorianCalendar.YEAR, y);
-    loaCal.set(GregorianCalendar.DAY_OF_MONTH, loaBeg);
-    int daysOfLoa = this.daysBetweenGregorian(loaCal, cal);
-    // calculate current month and day of month
-    int[] periodInfo = this.calculatePeriodAndDayInPeriod(daysOfLoa, isLeapLoa);
-    int period = periodInfo[0];
-    int dayOfPeriod = periodInfo[1];
+    int daysOfLoa = epochDay - yestareEpochDay(y) + 1;
+    // calculate current period, day of period and month
+    int periodInfo = periodOfDay(daysOfLoa, isLeapLoa);
+    int period = periodOf(periodInfo);
+    int dayOfPeriod = dayOfPeriodOf(periodInfo);
+    int month = monthOf(periodInfo);
+    boolean isMonth = month != 0;
     // calculate yen
-    int yen = this.calculateYen(y);
+    int yen = calculateYen(y);
     // calculate current week in month (if any), and day of week
-    boolean isMonth = false;
-    int month = 0;
-    if (this.periodIsMonth(period)) {
-      isMonth = true;
-      month = this.calculateMonthFromPeriod(period);
-    }
-    int[] weekInfo = this.calculateWeekAndDayOfWeek(yen, loa, daysOfLoa);
+    int[] weekInfo = calculateWeekAndDayOfWeek(yen, loa, daysOfLoa);
     int weekOfPeriod = weekInfo[0];
     int dayOfWeek = weekInfo[1];
     int yestareWeekDay = weekInfo[2];
+    // calculate day of march of year 'y' in which loa begins
+    int loaBeg = loaBeginningDay(y);
     // store data and return
-    this.setYenInt(yen);
-    this.setDayOfPeriod(dayOfPeriod);
-    this.setLoa(loa);
-    this.setLoaBeginingDay(loaBeg);
-    this.setDayOfLoa(daysOfLoa);
-    this.setLeapLoa(isLeapLoa);
-    this.setPeriodOfLoaInt(period);
-    this.setInMonth(isMonth);
-    this.setMonthOfLoa(month);
-    this.setWeekOfPeriod(weekOfPeriod);
-    this.setDayOfWeekInt(dayOfWeek);
-    this.setYestareWeekDayInt(yestareWeekDay);
+    this.fields = ((long) yen << ImladrisDate.YEN_SHIFT)
+        | ((long) loa << ImladrisDate.LOA_SHIFT)
+        | ((long) daysOfLoa << ImladrisDate.DAY_OF_LOA_SHIFT)
+        | ((long) period << ImladrisDate.PERIOD_SHIFT)
+        | ((long) dayOfPeriod << ImladrisDate.DAY_OF_PERIOD_SHIFT)
+        | ((long) weekOfPeriod << ImladrisDate.WEEK_OF_PERIOD_SHIFT)
+        | ((long) dayOfWeek << ImladrisDate.DAY_OF_WEEK_SHIFT)
+        | loaFields(isLeapLoa, isMonth, month, loaBeg, yestareWeekDay);
+  }
+
+  /**
+   * Pack the fields above the ones of ImladrisDate.
+   * @param leap Leap loa flag
+   * @param isMonth In month flag
+   * @param month Month of loa
+   * @param loaBeg Day of march in which the loa begins
+   * @param yestareWeekDay Week day of Yestarë
+   * @return Packed fields
+   */
+  private static long loaFields(boolean leap, boolean isMonth, int month, int loaBeg,
+                                int yestareWeekDay) {
+    return ((leap ? 1L : 0L) << LEAP_LOA_SHIFT)
+        | ((isMonth ? 1L : 0L) << IN_MONTH_SHIFT)
+        | ((long) month << MONTH_OF_LOA_SHIFT)
+        | ((long) loaBeg << LOA_BEGINNING_DAY_SHIFT)
+        | ((long) yestareWeekDay << YESTARE_DAY_OF_WEEK_SHIFT);
+  }
+
+  /**
+   * Check if the time of day of the calendar is at or after sunset, if sunset is defined.
+   * @param cal Calendar to get the time of day from
+   * @return Result of the check
+   */
+  private boolean sunsetHasPassed(GregorianCalendar cal) {
+    boolean passed = false;
+    if (this.isSunsetDefined()) {
+      passed = this.sunsetHasPassed(cal.get(GregorianCalendar.HOUR_OF_DAY) * 3600
+          + cal.get(GregorianCalendar.MINUTE) * 60
+          + cal.get(GregorianCalendar.SECOND));
+    }
+    return passed;
+  }
+
+  /**
+   * Check if the time of day is at or after sunset, if sunset is defined.
+   * @param secondOfDay Second of the day
+   * @return Result of the check
+   */
+  private boolean sunsetHasPassed(int secondOfDay) {
+    return this.isSunsetDefined() && secondOfDay >= this.sunsetSecondOfDay;
+  }
+
+  /**
+   * With every field already calculated in an Imladris date, store them.
+   * @param date Imladris date
+   */
+  private void updateFromDate(ImladrisDate date) {
+    int yen = date.getYenInt();
+    int loa = date.getLoa();
+    int y = (yen - 1) * 144 + loa;
+    int period = date.getPeriodOfLoaInt();
+    boolean isMonth = periodIsMonth(period);
+    // store data and return
+    this.fields = (date.getPacked() & DATE_FIELDS_MASK)
+        | loaFields(isLeapYear(y), isMonth, isMonth ? calculateMonthFromPeriod(period) : 0,
+            loaBeginningDay(y), yestareDayOfWeek(y));
   }
 
-  private int calculateYen(int y) {
+  static int calculateYen(int y) {
     int sign = y >= 0 ? 1 : -1;
     return (int) Math.floor((y - 1) / 144) + sign;
   }
 
-  private int calculateLoa(int y) {
+  static int calculateLoa(int y) {
     int loa = 0;
     int sign = y >= 0 ? 1 : -1;
     if (y != 0) {
@@ -881,14 +1279,72 @@ public class ImladrisCalendar {
     return loa;
   }
 
-  private int loaBeginningDay(int y) {
-    int loa = this.calculateLoa(y);
-    int yen = this.calculateYen(y);
-    int yestare = this.calculateYestare(yen, loa);
-    return yestare;
+  /**
+   * Calculate the Yestarë of every loa once, to be looked up by year afterwards.
+   * Index 0 holds the loa preceding Yen I, which only dates before its first Yestarë use.
+   * @return Packed Yestarë table
+   */
+  private static int[] buildYestareTable() {
+    int[] table = new int[YESTARE_MAP.length * 144 + 1];
+    for (int y = 0; y < table.length; y++) {
+      int yen = calculateYen(y);
+      int loa = calculateLoa(y);
+      int dayOfMarch = calculateYestare(yen, loa);
+      int epochDay = EpochDays.of(y, 3, dayOfMarch);
+      int dayOfWeek = calculateDayOfWeekOfYestare(yen, loa);
+      int leap = checkIfLeapLoa(loa) ? 1 : 0;
+      table[y] = (epochDay << 10) | ((dayOfMarch + 1) << 4) | (dayOfWeek << 1) | leap;
+    }
+    return table;
+  }
+
+  private static int loaBeginningDay(int y) {
+    return ((YESTARE_TABLE[y] >> 4) & 0x3F) - 1;
+  }
+
+  /**
+   * Gregorian year whose loa is ongoing on the given epoch day.
+   * @param epochDay Epoch day
+   * @return Year in which the ongoing loa began
+   */
+  static int loaYear(int epochDay) {
+    int y = EpochDays.year(EpochDays.toYearMonthDay(epochDay));
+    // if that year's yestare hasn't come yet (or is past the last yen), use previous year's loa
+    if (y >= YESTARE_TABLE.length || epochDay < yestareEpochDay(y)) {
+      y = y - 1;
+    }
+    return y;
+  }
+
+  static int yestareEpochDay(int y) {
+    return YESTARE_TABLE[y] >> 10;
+  }
+
+  private static int yestareDayOfWeek(int y) {
+    return (YESTARE_TABLE[y] >> 1) & 0x7;
   }
 
-  private int calculateYestare(int yen, int loa) {
+  static boolean isLeapYear(int y) {
+    return (YESTARE_TABLE[y] & 1) != 0;
+  }
+
+  /**
+   * Amount of days of the loa beginning in the given year.
+   * Usually 365, or 368 in leap loar, but shorter when Yestarë moves back in the next yen.
+   * @param y Year in which the loa begins
+   * @return Amount of days
+   */
+  static int loaLength(int y) {
+    int length;
+    if (y + 1 < YESTARE_TABLE.length) {
+      length = yestareEpochDay(y + 1) - yestareEpochDay(y);
+    } else {
+      length = calculateDayOfLoa(METTARE, 1, isLeapYear(y));
+    }
+    return length;
+  }
+
+  private static int calculateYestare(int yen, int loa) {
     int yestare;
     // get array for current yen
     int[][] yenMap = YESTARE_MAP[yen - 1];
@@ -919,38 +1375,78 @@ public class ImladrisCalendar {
     return yestare;
   }
 
-  private boolean checkIfLeapLoa(int loa) {
+  static boolean checkIfLeapLoa(int loa) {
     return loa % 12 == 0;
   }
 
-  private int[] calculatePeriodAndDayInPeriod(int days, boolean leap) {
-    int[] daysInPeriod = ImladrisCalendar.LENGTH_OF_PERIODS;
-    if (leap) {
-      daysInPeriod = ImladrisCalendar.LENGTH_OF_PERIODS_LEAP;
-    }
-    int period = 1;
-    boolean end = false;
-    while (!end && (period < 10)) {
-      if (days <= daysInPeriod[period - 1]) { // is in period 'period'
-        end = true;
-      } else { // is not in period 'period'
-        days -= daysInPeriod[period - 1];
-        period++;
+  private static short[] buildPeriodOfDayTable(int[] lengths) {
+    short[] table = new short[sum(lengths) + 1];
+    int dayOfLoa = 1;
+    for (int period = YESTARE; period <= METTARE; period++) {
+      int month = periodIsMonth(period) ? calculateMonthFromPeriod(period) : 0;
+      for (int day = 1; day <= lengths[period - 1]; day++) {
+        table[dayOfLoa++] = (short) ((month << 12) | (period << 8) | day);
       }
     }
-    int[] ret = {period, days};
-    return ret;
+    return table;
+  }
+
+  private static int[] buildDaysBeforePeriodTable(int[] lengths) {
+    int[] table = new int[lengths.length + 1];
+    for (int i = 0; i < lengths.length; i++) {
+      table[i + 1] = table[i] + lengths[i];
+    }
+    return table;
+  }
+
+  private static int sum(int[] values) {
+    int total = 0;
+    for (int value : values) {
+      total += value;
+    }
+    return total;
+  }
+
+  /**
+   * Period, day of period and month of loa of a day of loa, looked up from a table.
+   * @param dayOfLoa Day of loa (1-365, or 1-368 in leap loar)
+   * @param leap Leap loa flag
+   * @return Packed period info, to read with periodOf, dayOfPeriodOf and monthOf
+   */
+  static int periodOfDay(int dayOfLoa, boolean leap) {
+    short[] table = leap ? PERIOD_OF_DAY_LEAP : PERIOD_OF_DAY;
+    if (dayOfLoa < 1 || dayOfLoa >= table.length) {
+      throw new IllegalArgumentException("Invalid day of loa: " + dayOfLoa);
+    }
+    return table[dayOfLoa];
+  }
+
+  static int periodOf(int periodInfo) {
+    return (periodInfo >> 8) & 0xF;
   }
 
-  private boolean periodIsMonth(int period) {
+  static int dayOfPeriodOf(int periodInfo) {
+    return periodInfo & 0xFF;
+  }
+
+  static int monthOf(int periodInfo) {
+    return periodInfo >> 12;
+  }
+
+  static int calculateDayOfLoa(int period, int dayOfPeriod, boolean leap) {
+    int[] daysBefore = leap ? DAYS_BEFORE_PERIOD_LEAP : DAYS_BEFORE_PERIOD;
+    return daysBefore[period - 1] + dayOfPeriod;
+  }
+
+  static boolean periodIsMonth(int period) {
     return (period > 1 && period < 5) || (period > 5 && period < 9);
   }
 
-  private int calculateMonthFromPeriod(int period) {
+  static int calculateMonthFromPeriod(int period) {
     return (period < 4) ? period - 1 : period - 2;
   }
 
-  private int calculateDayOfWeekOfYestare(int yen, int loa) {
+  private static int calculateDayOfWeekOfYestare(int yen, int loa) {
     int offsetRegular = -1;
     int offsetLeap = 2;
     int firstYestareDayOfWeek = ImladrisCalendar.LOA_1_YEN_I_DAY_OF_WEEK;
@@ -975,9 +1471,9 @@ public class ImladrisCalendar {
     return yestareDayOfWeek;
   }
 
-  private int[] calculateWeekAndDayOfWeek(int yen, int loa, int dayOfLoa) {
+  static int[] calculateWeekAndDayOfWeek(int yen, int loa, int dayOfLoa) {
     // This Loa's Yestare Day Of Week
-    int weekDayOfYestare = this.calculateDayOfWeekOfYestare(yen, loa);
+    int weekDayOfYestare = yestareDayOfWeek((yen - 1) * 144 + loa);
     // Current day's day of week
     int dayOfWeek = ((weekDayOfYestare + (dayOfLoa - 1) - 1) % 6) + 1;
     // Week number
@@ -987,45 +1483,32 @@ public class ImladrisCalendar {
     return ret;
   }
 
-  private int daysBetweenGregorian(final GregorianCalendar startDate,
-                                   final GregorianCalendar endDate) {
-    GregorianCalendar dateStart = (GregorianCalendar) startDate.clone();
-    dateStart.set(GregorianCalendar.HOUR_OF_DAY, 0);
-    dateStart.set(GregorianCalendar.MINUTE, 0);
-    dateStart.set(GregorianCalendar.SECOND, 0);
-    GregorianCalendar dateEnd = (GregorianCalendar) endDate.clone();
-    dateEnd.set(GregorianCalendar.HOUR_OF_DAY, 0);
-    dateEnd.set(GregorianCalendar.MINUTE, 0);
-    dateEnd.set(GregorianCalendar.SECOND, 0);
-    int daysBetween = 1;
-    while (dateStart.before(dateEnd)) {
-      daysBetween++;
-      dateStart.add(GregorianCalendar.DAY_OF_YEAR, 1);
-    }
-    return daysBetween;
-  }
-
   /**
    * Convert integer number to roman numerals.
    * @param num Integer number to convert
    * @return Converted roman numerals
    */
   public String intToRoman(int num) {
-    String[] romanBase = {"M", "CM", "D", "CD", "C", "XC", "L", "XL", "X", "IX", "V", "IV", "I"};
-    int[] arabicBase = {1000, 900, 500, 400, 100, 90, 50, 40, 10, 9, 5, 4, 1};
-    String roman = "";
-    for (int i = 0; i < romanBase.length; i++) {
-      while (num >= arabicBase[i]) {
-        num -= arabicBase[i];
-        roman += romanBase[i];
+    return toRoman(num);
+  }
+
+  static String toRoman(int num) {
+    if (num >= 0 && num < YEN_NUMERALS.length) {
+      return YEN_NUMERALS[num];
+    }
+    StringBuilder roman = new StringBuilder();
+    for (int i = 0; i < ROMAN_BASE.length; i++) {
+      while (num >= ARABIC_BASE[i]) {
+        num -= ARABIC_BASE[i];
+        roman.append(ROMAN_BASE[i]);
       }
     }
-    return roman;
+    return roman.toString();
   }
 
-  private int romanCharToInt(char roman) {
+  private static int romanCharToInt(char roman) {
     int num = 0;
-    switch (roman) {
+    switch (Character.toUpperCase(roman)) {
       case 'M':
         num = 1000;
         break;
@@ -1059,16 +1542,26 @@ public class ImladrisCalendar {
    * @return Convert integer
    */
   public int romanToInt(String roman) {
-    roman = roman.toUpperCase();
+    return fromRoman(roman, 0, roman.length());
+  }
+
+  /**
+   * Roman numerals to integer, in any case, reading them in place.
+   * @param roman Characters holding the numerals
+   * @param start Index of the first numeral
+   * @param end Index after the last numeral
+   * @return Converted integer
+   */
+  static int fromRoman(CharSequence roman, int start, int end) {
     int arabic = 0;
-    int i = 0;
-    while (i < roman.length()) {
-      int number = this.romanCharToInt(roman.charAt(i));
+    int i = start;
+    while (i < end) {
+      int number = romanCharToInt(roman.charAt(i));
       i++;
-      if (i == roman.length()) {
+      if (i == end) {
         arabic += number;
       } else {
-        int nextNumber = this.romanCharToInt(roman.charAt(i));
+        int nextNumber = romanCharToInt(roman.charAt(i));
         if (nextNumber > number) {
           arabic += (nextNumber - number);
           i++;
@@ -1085,16 +1578,15 @@ public class ImladrisCalendar {
    * @return Serialized date
    */
   public String toString() {
-    String str = this.getDayOfWeek() + ", ";
-    if (this.isInMonth()) {
-      str += this.getPeriodOfLoa() + " " + this.getDayOfPeriod() + ", ";
-    } else if (this.getPeriodOfLoaInt() == ImladrisCalendar.ENDERI) {
-      str += this.getPeriodOfLoa() + " " + this.getDayOfPeriod() + ", ";
-    } else {
-      str += this.getPeriodOfLoa() + ", ";
-    }
-    str += this.getYen() + " " + this.getLoa();
-    return str;
+    return ImladrisDateFormatter.TEXTUAL.format(this);
+  }
+
+  static String periodName(int period) {
+    return PERIODS_OF_LOA[period - 1];
+  }
+
+  static String dayOfWeekName(int dayOfWeek) {
+    return DAYS_OF_WEEK[dayOfWeek - 1];
   }
 
 }
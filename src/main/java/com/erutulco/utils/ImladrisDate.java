@@ -0,0 +1,385 @@
+package com.erutulco.utils;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoField;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalAdjuster;
+import java.time.temporal.TemporalField;
+import java.time.temporal.UnsupportedTemporalTypeException;
+import java.util.Arrays;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Immutable Imladris Reckoning date, without time of day or sunset.
+ * Every field is packed, together with the epoch day, in a single long, so instances are
+ * cheap to create, safe to share between threads and usable as map keys.
+ * As a TemporalAccessor it exposes its epoch day, so LocalDate.from reads it, and as a
+ * TemporalAdjuster it moves java.time dates to its day, i.e.: dateTime.with(imladrisDate).
+ */
+public final class ImladrisDate
+    implements Comparable<ImladrisDate>, TemporalAccessor, TemporalAdjuster {
+
+  /* ************** PACKED LAYOUT ************** */
+
+  static final int DAY_OF_WEEK_SHIFT = 0;
+  static final int WEEK_OF_PERIOD_SHIFT = 3;
+  static final int DAY_OF_PERIOD_SHIFT = 9;
+  static final int PERIOD_SHIFT = 16;
+  static final int DAY_OF_LOA_SHIFT = 20;
+  static final int LOA_SHIFT = 29;
+  static final int YEN_SHIFT = 37;
+  static final int EPOCH_DAY_SHIFT = 42;
+
+  /* ************** RANGE ************** */
+
+  /**
+   * Epoch day of Yestarë of loa 1 of Yen I, the first supported date.
+   */
+  static final int MIN_EPOCH_DAY = ImladrisCalendar.yestareEpochDay(1);
+  /**
+   * Epoch day of Mettarë of loa 144 of Yen XVI, the last supported date.
+   */
+  static final int MAX_EPOCH_DAY = ImladrisCalendar.yestareEpochDay(16 * 144)
+      + ImladrisCalendar.loaLength(16 * 144) - 1;
+
+  /* ************** ATTRIBUTES ************** */
+
+  /**
+   * Epoch day and Imladris fields, packed.
+   */
+  private final long packed;
+
+  ImladrisDate(long packed) {
+    this.packed = packed;
+  }
+
+  /**
+   * Obtain the date of the given epoch day.
+   * @param epochDay Days since 1970-01-01, as in LocalDate
+   * @return Imladris date
+   */
+  public static ImladrisDate ofEpochDay(long epochDay) {
+    if (epochDay < MIN_EPOCH_DAY || epochDay > MAX_EPOCH_DAY) {
+      throw new IllegalArgumentException("Epoch day out of supported range: " + epochDay);
+    }
+    return new ImladrisDate(pack((int) epochDay));
+  }
+
+  /**
+   * Obtain a date from yen, loa and day of loa.
+   * @param yen Yen integer (1-16)
+   * @param loa Loa integer (1-144)
+   * @param dayOfLoa Day of Loa integer (1-365, or 1-368 in leap loar)
+   * @return Imladris date
+   */
+  public static ImladrisDate of(int yen, int loa, int dayOfLoa) {
+    checkYenAndLoa(yen, loa);
+    int y = (yen - 1) * 144 + loa;
+    if (dayOfLoa < 1 || dayOfLoa > ImladrisCalendar.loaLength(y)) {
+      throw new IllegalArgumentException("Invalid day of loa: " + dayOfLoa);
+    }
+    return new ImladrisDate(pack(ImladrisCalendar.yestareEpochDay(y) + dayOfLoa - 1));
+  }
+
+  /**
+   * Obtain a date from yen, loa, period and day of period.
+   * @param yen Yen integer (1-16)
+   * @param loa Loa integer (1-144)
+   * @param period Period integer (1-9|YESTARE-METTARE)
+   * @param dayOfPeriod Day in Period integer
+   * @return Imladris date
+   */
+  public static ImladrisDate of(int yen, int loa, int period, int dayOfPeriod) {
+    checkYenAndLoa(yen, loa);
+    boolean leap = ImladrisCalendar.checkIfLeapLoa(loa);
+    if (period < ImladrisCalendar.YESTARE || period > ImladrisCalendar.METTARE) {
+      throw new IllegalArgumentException("Invalid period: " + period);
+    }
+    if (dayOfPeriod < 1 || dayOfPeriod > ImladrisCalendar.lengthOfPeriod(period, leap)) {
+      throw new IllegalArgumentException("Invalid day of period: " + dayOfPeriod);
+    }
+    return of(yen, loa, ImladrisCalendar.calculateDayOfLoa(period, dayOfPeriod, leap));
+  }
+
+  /**
+   * Obtain the date that falls on the given LocalDate.
+   * LocalDate is proleptic Gregorian, so dates before 1582-10-15 are matched by
+   * the actual day, not by the Julian date that ImladrisCalendar would read.
+   * @param date Local date
+   * @return Imladris date
+   */
+  public static ImladrisDate from(LocalDate date) {
+    return ofEpochDay(date.toEpochDay());
+  }
+
+  /**
+   * Obtain the date of any java.time object with an epoch day, such as a LocalDateTime or a
+   * ZonedDateTime, taken at its local date.
+   * @param temporal Date-based temporal
+   * @return Imladris date
+   */
+  public static ImladrisDate from(TemporalAccessor temporal) {
+    return ofEpochDay(temporal.getLong(ChronoField.EPOCH_DAY));
+  }
+
+  private static void checkYenAndLoa(int yen, int loa) {
+    if (yen < 1 || yen > 16) {
+      throw new IllegalArgumentException("Invalid yen: " + yen);
+    }
+    if (loa < 1 || loa > 144) {
+      throw new IllegalArgumentException("Invalid loa: " + loa);
+    }
+  }
+
+  /**
+   * Calculate every Imladris field of an epoch day and pack them.
+   * @param epochDay Epoch day in the supported range
+   * @return Packed epoch day and fields
+   */
+  static long pack(int epochDay) {
+    int y = ImladrisCalendar.loaYear(epochDay);
+    int yen = ImladrisCalendar.calculateYen(y);
+    int loa = ImladrisCalendar.calculateLoa(y);
+    int dayOfLoa = epochDay - ImladrisCalendar.yestareEpochDay(y) + 1;
+    int periodInfo = ImladrisCalendar.periodOfDay(dayOfLoa, ImladrisCalendar.isLeapYear(y));
+    int[] weekInfo = ImladrisCalendar.calculateWeekAndDayOfWeek(yen, loa, dayOfLoa);
+    return ((long) epochDay << EPOCH_DAY_SHIFT)
+        | ((long) yen << YEN_SHIFT)
+        | ((long) loa << LOA_SHIFT)
+        | ((long) dayOfLoa << DAY_OF_LOA_SHIFT)
+        | ((long) ImladrisCalendar.periodOf(periodInfo) << PERIOD_SHIFT)
+        | ((long) ImladrisCalendar.dayOfPeriodOf(periodInfo) << DAY_OF_PERIOD_SHIFT)
+        | ((long) weekInfo[0] << WEEK_OF_PERIOD_SHIFT)
+        | ((long) weekInfo[1] << DAY_OF_WEEK_SHIFT);
+  }
+
+  /**
+   * Pack the fields of the day following a packed date, deriving them from the given ones.
+   * @param packed Packed epoch day and fields, not the last supported date
+   * @return Packed epoch day and fields of the next day
+   */
+  static long next(long packed) {
+    ImladrisDate date = new ImladrisDate(packed);
+    int epochDay = (int) date.toEpochDay() + 1;
+    int loa = date.getLoa();
+    boolean leap = ImladrisCalendar.checkIfLeapLoa(loa);
+    int dayOfLoa = date.getDayOfLoa() + 1;
+    if (dayOfLoa > ImladrisCalendar.loaLength((date.getYenInt() - 1) * 144 + loa)) {
+      // new loa, calculate from scratch
+      return pack(epochDay);
+    }
+    int period = date.getPeriodOfLoaInt();
+    int dayOfPeriod = date.getDayOfPeriod() + 1;
+    if (dayOfPeriod > ImladrisCalendar.lengthOfPeriod(period, leap)) {
+      period++;
+      dayOfPeriod = 1;
+    }
+    int week = date.getWeekOfPeriod();
+    int dayOfWeek = date.getDayOfWeekInt() + 1;
+    if (dayOfWeek > ImladrisCalendar.VALANYA) {
+      week++;
+      dayOfWeek = ImladrisCalendar.ELENYA;
+    }
+    return ((long) epochDay << EPOCH_DAY_SHIFT)
+        | ((long) date.getYenInt() << YEN_SHIFT)
+        | ((long) loa << LOA_SHIFT)
+        | ((long) dayOfLoa << DAY_OF_LOA_SHIFT)
+        | ((long) period << PERIOD_SHIFT)
+        | ((long) dayOfPeriod << DAY_OF_PERIOD_SHIFT)
+        | ((long) week << WEEK_OF_PERIOD_SHIFT)
+        | ((long) dayOfWeek << DAY_OF_WEEK_SHIFT);
+  }
+
+  /**
+   * Stream of consecutive dates, each derived from the previous one.
+   * The stream splits on loa boundaries, so it can be processed in parallel.
+   * @param startInclusive First date
+   * @param endExclusive Date after the last one
+   * @return Ordered stream of dates
+   */
+  public static Stream<ImladrisDate> range(ImladrisDate startInclusive,
+                                           ImladrisDate endExclusive) {
+    return StreamSupport.stream(
+        new ImladrisDateSpliterator(startInclusive.packed, (int) startInclusive.toEpochDay(),
+            (int) endExclusive.toEpochDay()),
+        false);
+  }
+
+  long getPacked() {
+    return this.packed;
+  }
+
+  /**
+   * Sort dates chronologically, as primitive keys, without comparing dates.
+   * @param dates Dates to sort
+   */
+  public static void sort(ImladrisDate[] dates) {
+    long[] keys = new long[dates.length];
+    for (int i = 0; i < dates.length; i++) {
+      keys[i] = (dates[i].toEpochDay() << 32) | i;
+    }
+    Arrays.sort(keys);
+    ImladrisDate[] sorted = new ImladrisDate[dates.length];
+    for (int i = 0; i < keys.length; i++) {
+      sorted[i] = dates[(int) keys[i]];
+    }
+    System.arraycopy(sorted, 0, dates, 0, sorted.length);
+  }
+
+  /* ************* API Methods ************* */
+
+  public long toEpochDay() {
+    return this.packed >> EPOCH_DAY_SHIFT;
+  }
+
+  public LocalDate toLocalDate() {
+    return LocalDate.ofEpochDay(this.toEpochDay());
+  }
+
+  public int getYenInt() {
+    return (int) (this.packed >>> YEN_SHIFT) & 0x1F;
+  }
+
+  public int getLoa() {
+    return (int) (this.packed >>> LOA_SHIFT) & 0xFF;
+  }
+
+  public int getDayOfLoa() {
+    return (int) (this.packed >>> DAY_OF_LOA_SHIFT) & 0x1FF;
+  }
+
+  public boolean isLeapLoa() {
+    return ImladrisCalendar.checkIfLeapLoa(this.getLoa());
+  }
+
+  public int getPeriodOfLoaInt() {
+    return (int) (this.packed >>> PERIOD_SHIFT) & 0xF;
+  }
+
+  public int getDayOfPeriod() {
+    return (int) (this.packed >>> DAY_OF_PERIOD_SHIFT) & 0x7F;
+  }
+
+  public int getWeekOfPeriod() {
+    return (int) (this.packed >>> WEEK_OF_PERIOD_SHIFT) & 0x3F;
+  }
+
+  public int getDayOfWeekInt() {
+    return (int) (this.packed >>> DAY_OF_WEEK_SHIFT) & 0x7;
+  }
+
+  /**
+   * Getter of the ImladrisCalendar fields of the date.
+   * @param field Id of the index field to get value from
+   * @return Value of the required field
+   */
+  public int get(int field) {
+    return get(this.packed, field);
+  }
+
+  /**
+   * Getter of the ImladrisCalendar fields of packed fields.
+   * @param packed Packed fields, in the layout of ImladrisDate
+   * @param field Id of the index field to get value from
+   * @return Value of the required field, or -1 if not a field
+   */
+  static int get(long packed, int field) {
+    int value = -1;
+    switch (field) {
+      case ImladrisCalendar.YEN:
+        value = (int) (packed >>> YEN_SHIFT) & 0x1F;
+        break;
+      case ImladrisCalendar.LOA:
+        value = (int) (packed >>> LOA_SHIFT) & 0xFF;
+        break;
+      case ImladrisCalendar.DAY_OF_LOA:
+        value = (int) (packed >>> DAY_OF_LOA_SHIFT) & 0x1FF;
+        break;
+      case ImladrisCalendar.PERIOD:
+        value = (int) (packed >>> PERIOD_SHIFT) & 0xF;
+        break;
+      case ImladrisCalendar.DAY_OF_PERIOD:
+        value = (int) (packed >>> DAY_OF_PERIOD_SHIFT) & 0x7F;
+        break;
+      case ImladrisCalendar.DAY_OF_WEEK:
+        value = (int) (packed >>> DAY_OF_WEEK_SHIFT) & 0x7;
+        break;
+      case ImladrisCalendar.WEEK_OF_PERIOD:
+        value = (int) (packed >>> WEEK_OF_PERIOD_SHIFT) & 0x3F;
+        break;
+      default:
+        break;
+    }
+    return value;
+  }
+
+  @Override
+  public boolean isSupported(TemporalField field) {
+    return field == ChronoField.EPOCH_DAY;
+  }
+
+  @Override
+  public long getLong(TemporalField field) {
+    if (field != ChronoField.EPOCH_DAY) {
+      throw new UnsupportedTemporalTypeException("Unsupported field: " + field);
+    }
+    return this.toEpochDay();
+  }
+
+  /**
+   * Move a java.time date or date and time to the day of this date, keeping its time.
+   * @param temporal Temporal to adjust
+   * @return Adjusted temporal
+   */
+  @Override
+  public Temporal adjustInto(Temporal temporal) {
+    return temporal.with(ChronoField.EPOCH_DAY, this.toEpochDay());
+  }
+
+  /**
+   * Obtain the date a number of days later, or earlier if negative.
+   * @param days Days to add
+   * @return Resulting date
+   */
+  public ImladrisDate plusDays(long days) {
+    if (days == 0) {
+      return this;
+    }
+    if (days == 1 && this.toEpochDay() < MAX_EPOCH_DAY) {
+      return new ImladrisDate(next(this.packed));
+    }
+    return ofEpochDay(this.toEpochDay() + days);
+  }
+
+  /**
+   * Compare to other ImladrisDate instance, chronologically.
+   * @param other Date to compare to
+   * @return Negative, zero or positive if before, same or after other
+   */
+  @Override
+  public int compareTo(ImladrisDate other) {
+    return Long.compare(this.packed, other.packed);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return obj instanceof ImladrisDate && ((ImladrisDate) obj).packed == this.packed;
+  }
+
+  @Override
+  public int hashCode() {
+    return (int) this.toEpochDay();
+  }
+
+  /**
+   * Implementation of toString to serialize the date, as in ImladrisCalendar.
+   * @return Serialized date
+   */
+  @Override
+  public String toString() {
+    return ImladrisDateFormatter.TEXTUAL.format(this);
+  }
+
+}
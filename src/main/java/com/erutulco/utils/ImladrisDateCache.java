@@ -0,0 +1,112 @@
+package com.erutulco.utils;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of Imladris dates by epoch day, for servers converting the same few days over
+ * and over. It is direct mapped: each epoch day has a single slot, holding the packed fields
+ * of the last date stored there, and the epoch day within them tells whether it is a hit.
+ * Lookups and stores are plain atomic reads and writes, without locks, so it is safe and cheap
+ * to share between any amount of threads.
+ */
+public class ImladrisDateCache {
+
+  private final AtomicLongArray slots;
+  private final int mask;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * Imladris date cache.
+   * @param capacity Amount of slots, rounded up to a power of two, i.e.: 1024 keeps every day
+   *                 of the last and next year and a half
+   */
+  public ImladrisDateCache(int capacity) {
+    if (capacity < 1 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("Invalid capacity: " + capacity);
+    }
+    int size = Integer.highestOneBit(capacity);
+    if (size < capacity) {
+      size <<= 1;
+    }
+    this.slots = new AtomicLongArray(size);
+    this.mask = size - 1;
+  }
+
+  /* ************* API Methods ************* */
+
+  /**
+   * Imladris date of an epoch day, calculated only if not cached.
+   * @param epochDay Days since 1970-01-01, as in LocalDate
+   * @return Imladris date
+   */
+  public ImladrisDate get(long epochDay) {
+    int slot = (int) epochDay & this.mask;
+    long packed = this.slots.get(slot);
+    // no date packs to 0, as yen is at least 1, so empty slots never match epoch day 0
+    if (packed != 0 && new ImladrisDate(packed).toEpochDay() == epochDay) {
+      this.hits.increment();
+      return new ImladrisDate(packed);
+    }
+    this.misses.increment();
+    ImladrisDate date = ImladrisDate.ofEpochDay(epochDay);
+    this.slots.lazySet(slot, date.getPacked());
+    return date;
+  }
+
+  /**
+   * Imladris date of a day and time of day, which is the next one from sunset on.
+   * @param epochDay Days since 1970-01-01, as in LocalDate
+   * @param secondOfDay Second of day of the time
+   * @param sunsetSecondOfDay Second of day of sunset, or SunsetCalculator.NO_SUNSET
+   * @return Imladris date
+   */
+  public ImladrisDate get(long epochDay, int secondOfDay, int sunsetSecondOfDay) {
+    boolean passed = sunsetSecondOfDay != SunsetCalculator.NO_SUNSET
+        && secondOfDay >= sunsetSecondOfDay;
+    return this.get(passed ? epochDay + 1 : epochDay);
+  }
+
+  /**
+   * Imladris date of a LocalDate, calculated only if not cached.
+   * @param date Local date
+   * @return Imladris date
+   */
+  public ImladrisDate get(LocalDate date) {
+    return this.get(date.toEpochDay());
+  }
+
+  /**
+   * Empty every slot, keeping the counters.
+   */
+  public void clear() {
+    for (int i = 0; i < this.slots.length(); i++) {
+      this.slots.set(i, 0);
+    }
+  }
+
+  public int getCapacity() {
+    return this.slots.length();
+  }
+
+  public long getHitCount() {
+    return this.hits.sum();
+  }
+
+  public long getMissCount() {
+    return this.misses.sum();
+  }
+
+  /**
+   * Ratio of lookups found in the cache.
+   * @return Hit rate (0-1), or 0 if there were no lookups
+   */
+  public double getHitRate() {
+    long hitCount = this.hits.sum();
+    long total = hitCount + this.misses.sum();
+    return total == 0 ? 0 : (double) hitCount / total;
+  }
+
+}
@@ -0,0 +1,526 @@
+package com.erutulco.utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.text.ParsePosition;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Formatter and parser of Imladris dates by pattern, as DateTimeFormatter for Gregorian ones.
+ * Instances are immutable and safe to share between threads; formatting writes into the given
+ * Appendable and parsing reads in place from the given text, so neither copies strings.
+ * <br>
+ * Pattern letters, numbers being zero padded to the amount of letters, and read with exactly
+ * that amount of digits if more than one:
+ * <br>
+ * E day of week name (Elenya), e day of week (1-6), P period name (Tuilë), p period (1-9),
+ * d day of period, D day of loa, w week of period, Y yen in Roman numerals (XV), y yen (1-16),
+ * l loa (1-144).
+ * <br>
+ * Any other character is a literal, as is text between single quotes ('' for a quote).
+ * Text between square brackets is only written for periods longer than a day, which is not
+ * the case of Yestarë and Mettarë, and is optional when parsing.
+ */
+public final class ImladrisDateFormatter {
+
+  /* ************** ELEMENTS ************** */
+
+  private static final char LITERAL = '\'';
+  private static final char OPTIONAL_START = '[';
+  private static final char OPTIONAL_END = ']';
+  private static final String LETTERS = "EePpdDwYyl";
+  /**
+   * Field of each pattern letter.
+   */
+  private static final int[] LETTER_FIELDS = {
+      ImladrisCalendar.DAY_OF_WEEK, ImladrisCalendar.DAY_OF_WEEK,
+      ImladrisCalendar.PERIOD, ImladrisCalendar.PERIOD,
+      ImladrisCalendar.DAY_OF_PERIOD, ImladrisCalendar.DAY_OF_LOA,
+      ImladrisCalendar.WEEK_OF_PERIOD, ImladrisCalendar.YEN, ImladrisCalendar.YEN,
+      ImladrisCalendar.LOA
+  };
+  /**
+   * Amount of fields, as in ImladrisCalendar.get.
+   */
+  private static final int FIELD_COUNT = 7;
+  private static final int MAX_NUMBER_DIGITS = 3;
+
+  /* ************** FORMATS ************** */
+
+  /**
+   * Textual form, as in ImladrisCalendar.toString (i.e.: 'Anarya, Tuilë 1, XV 10').
+   */
+  public static final ImladrisDateFormatter TEXTUAL = ofPattern("E, P[ d], Y l");
+  /**
+   * Compact numeric form of yen, loa and day of loa, which sorts chronologically
+   * (i.e.: '15-010-002').
+   */
+  public static final ImladrisDateFormatter NUMERIC = ofPattern("yy-lll-DDD");
+
+  private final String pattern;
+  /**
+   * Pattern letter of each element, or LITERAL, OPTIONAL_START or OPTIONAL_END.
+   */
+  private final char[] kinds;
+  /**
+   * Amount of letters of each element.
+   */
+  private final int[] widths;
+  /**
+   * Field of each pattern letter element, -1 for the rest.
+   */
+  private final int[] fields;
+  /**
+   * Text of each literal element, null for the rest.
+   */
+  private final String[] literals;
+
+  private ImladrisDateFormatter(String pattern, char[] kinds, int[] widths, String[] literals) {
+    this.pattern = pattern;
+    this.kinds = kinds;
+    this.widths = widths;
+    this.literals = literals;
+    this.fields = new int[kinds.length];
+    for (int i = 0; i < kinds.length; i++) {
+      int letter = LETTERS.indexOf(kinds[i]);
+      this.fields[i] = letter == -1 ? -1 : LETTER_FIELDS[letter];
+    }
+  }
+
+  /**
+   * Formatter of the given pattern.
+   * @param pattern Pattern, as described in the class
+   * @return Formatter
+   */
+  public static ImladrisDateFormatter ofPattern(String pattern) {
+    List<Character> kinds = new ArrayList<>();
+    List<Integer> widths = new ArrayList<>();
+    List<String> literals = new ArrayList<>();
+    boolean optional = false;
+    int i = 0;
+    while (i < pattern.length()) {
+      char c = pattern.charAt(i);
+      int start = i;
+      String literal = null;
+      if (LETTERS.indexOf(c) != -1) {
+        while (i < pattern.length() && pattern.charAt(i) == c) {
+          i++;
+        }
+      } else if (c == LITERAL) {
+        StringBuilder text = new StringBuilder();
+        i++;
+        while (true) {
+          if (i == pattern.length()) {
+            throw new IllegalArgumentException("Unterminated quote in pattern: " + pattern);
+          }
+          if (pattern.charAt(i) == LITERAL) {
+            if (i + 1 < pattern.length() && pattern.charAt(i + 1) == LITERAL) {
+              i++;
+            } else {
+              break;
+            }
+          }
+          text.append(pattern.charAt(i));
+          i++;
+        }
+        i++;
+        literal = text.length() == 0 ? "'" : text.toString();
+      } else if (c == OPTIONAL_START || c == OPTIONAL_END) {
+        if (optional == (c == OPTIONAL_START)) {
+          throw new IllegalArgumentException("Unbalanced optional section in pattern: " + pattern);
+        }
+        optional = c == OPTIONAL_START;
+        i++;
+      } else if (Character.isLetter(c)) {
+        throw new IllegalArgumentException("Unknown pattern letter: " + c);
+      } else {
+        literal = String.valueOf(c);
+        i++;
+      }
+      if (literal != null) {
+        c = LITERAL;
+      }
+      if (LETTERS.indexOf(c) != -1 && i - start > MAX_NUMBER_DIGITS) {
+        throw new IllegalArgumentException("Too many pattern letters: " + c);
+      }
+      kinds.add(c);
+      widths.add(i - start);
+      literals.add(literal);
+    }
+    if (optional) {
+      throw new IllegalArgumentException("Unbalanced optional section in pattern: " + pattern);
+    }
+    char[] kindArray = new char[kinds.size()];
+    int[] widthArray = new int[kinds.size()];
+    for (int j = 0; j < kindArray.length; j++) {
+      kindArray[j] = kinds.get(j);
+      widthArray[j] = widths.get(j);
+    }
+    return new ImladrisDateFormatter(pattern, kindArray, widthArray,
+        literals.toArray(new String[0]));
+  }
+
+  /* ************* API Methods ************* */
+
+  /**
+   * Format a date.
+   * @param date Imladris date
+   * @return Formatted date
+   */
+  public String format(ImladrisDate date) {
+    StringBuilder out = new StringBuilder(32);
+    this.formatTo(date, out);
+    return out.toString();
+  }
+
+  /**
+   * Format the date of a calendar.
+   * @param calendar Imladris calendar
+   * @return Formatted date
+   */
+  public String format(ImladrisCalendar calendar) {
+    StringBuilder out = new StringBuilder(32);
+    this.formatTo(calendar, out);
+    return out.toString();
+  }
+
+  /**
+   * Format a date into a StringBuilder.
+   * @param date Imladris date
+   * @param out StringBuilder to append to
+   */
+  public void formatTo(ImladrisDate date, StringBuilder out) {
+    try {
+      this.formatFields(date.getPacked(), out);
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  /**
+   * Format a date into an Appendable, i.e.: a Writer.
+   * @param date Imladris date
+   * @param out Appendable to append to
+   * @throws UncheckedIOException If the Appendable fails
+   */
+  public void formatTo(ImladrisDate date, Appendable out) {
+    try {
+      this.formatFields(date.getPacked(), out);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Format the date of a calendar into a StringBuilder.
+   * @param calendar Imladris calendar
+   * @param out StringBuilder to append to
+   */
+  public void formatTo(ImladrisCalendar calendar, StringBuilder out) {
+    try {
+      this.formatFields(calendar.getPackedFields(), out);
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  /**
+   * Format the date of a calendar into an Appendable, i.e.: a Writer.
+   * @param calendar Imladris calendar
+   * @param out Appendable to append to
+   * @throws UncheckedIOException If the Appendable fails
+   */
+  public void formatTo(ImladrisCalendar calendar, Appendable out) {
+    try {
+      this.formatFields(calendar.getPackedFields(), out);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Parse a whole text.
+   * @param text Text to parse
+   * @return Imladris date
+   * @throws IllegalArgumentException If the text is not a valid date in this format
+   */
+  public ImladrisDate parse(CharSequence text) {
+    ParsePosition position = new ParsePosition(0);
+    ImladrisDate date = this.parse(text, position);
+    if (date == null || position.getIndex() != text.length()) {
+      int index = date == null ? position.getErrorIndex() : position.getIndex();
+      throw new IllegalArgumentException("Invalid date: '" + text + "' at index " + index);
+    }
+    return date;
+  }
+
+  /**
+   * Parse a date from a position of a text, without copying it, i.e.: a field of a CSV line.
+   * On success, the index of the position is moved after the date; on failure, it is kept
+   * and its error index is set to where the text stops matching the pattern, or to the start
+   * of the first field out of range or not matching the rest.
+   * @param text Text to parse
+   * @param position Position to parse from
+   * @return Imladris date, or null on failure
+   */
+  public ImladrisDate parse(CharSequence text, ParsePosition position) {
+    int[] values = new int[FIELD_COUNT];
+    int[] starts = new int[FIELD_COUNT];
+    Arrays.fill(starts, position.getIndex());
+    int end = this.parseElements(text, position.getIndex(), 0, this.kinds.length, values,
+        starts);
+    ImladrisDate date = null;
+    if (end >= 0) {
+      int field = invalidField(values);
+      if (field < 0) {
+        date = resolve(values);
+        field = mismatchedField(values, date);
+      }
+      if (field >= 0) {
+        date = null;
+        end = ~starts[field];
+      }
+    }
+    if (date == null) {
+      position.setErrorIndex(end >= 0 ? position.getIndex() : ~end);
+    } else {
+      position.setIndex(end);
+    }
+    return date;
+  }
+
+  public String getPattern() {
+    return this.pattern;
+  }
+
+  @Override
+  public String toString() {
+    return this.pattern;
+  }
+
+  /* ************* INTERNAL METHODS ************* */
+
+  /**
+   * Format packed fields, in the layout of ImladrisDate.
+   * @param packed Packed fields
+   * @param out Appendable to append to
+   * @throws IOException If the Appendable fails
+   */
+  private void formatFields(long packed, Appendable out) throws IOException {
+    int period = field(packed, ImladrisCalendar.PERIOD);
+    boolean singleDay = period == ImladrisCalendar.YESTARE || period == ImladrisCalendar.METTARE;
+    for (int i = 0; i < this.kinds.length; i++) {
+      char kind = this.kinds[i];
+      if (kind == LITERAL) {
+        out.append(this.literals[i]);
+      } else if (kind == OPTIONAL_START) {
+        if (singleDay) {
+          while (this.kinds[i] != OPTIONAL_END) {
+            i++;
+          }
+        }
+      } else if (kind == 'E') {
+        out.append(ImladrisCalendar.dayOfWeekName(field(packed, ImladrisCalendar.DAY_OF_WEEK)));
+      } else if (kind == 'P') {
+        out.append(ImladrisCalendar.periodName(period));
+      } else if (kind == 'Y') {
+        out.append(ImladrisCalendar.toRoman(field(packed, ImladrisCalendar.YEN)));
+      } else if (kind != OPTIONAL_END) {
+        appendNumber(out, field(packed, this.fields[i]), this.widths[i]);
+      }
+    }
+  }
+
+  private static int field(long packed, int field) {
+    return ImladrisDate.get(packed, field);
+  }
+
+  private static void appendNumber(Appendable out, int value, int width) throws IOException {
+    for (int limit = 10; width > 1; width--, limit *= 10) {
+      if (value < limit) {
+        out.append('0');
+      }
+    }
+    if (value >= 100) {
+      out.append((char) ('0' + value / 100));
+    }
+    if (value >= 10) {
+      out.append((char) ('0' + value / 10 % 10));
+    }
+    out.append((char) ('0' + value % 10));
+  }
+
+  /**
+   * Parse a range of elements.
+   * @param text Text to parse
+   * @param index Index of the text to parse from
+   * @param from First element
+   * @param to Element after the last one
+   * @param values Fields parsed, indexed by field id, 0 if not parsed
+   * @param starts Index of the text at which each field was parsed
+   * @return Index after the parsed text, or the complement of the error index
+   */
+  private int parseElements(CharSequence text, int index, int from, int to, int[] values,
+                            int[] starts) {
+    for (int i = from; i < to && index >= 0; i++) {
+      char kind = this.kinds[i];
+      if (kind == OPTIONAL_START) {
+        int end = i;
+        while (this.kinds[end] != OPTIONAL_END) {
+          end++;
+        }
+        int[] saved = values.clone();
+        int[] savedStarts = starts.clone();
+        int parsed = this.parseElements(text, index, i + 1, end, values, starts);
+        if (parsed >= 0) {
+          index = parsed;
+        } else {
+          System.arraycopy(saved, 0, values, 0, values.length);
+          System.arraycopy(savedStarts, 0, starts, 0, starts.length);
+        }
+        i = end;
+      } else if (kind == LITERAL) {
+        index = parseName(text, index, this.literals[i]) ? index + this.literals[i].length()
+            : ~index;
+      } else if (kind == 'E') {
+        starts[ImladrisCalendar.DAY_OF_WEEK] = index;
+        index = parseName(text, index, ImladrisCalendar.DAY_OF_WEEK, values);
+      } else if (kind == 'P') {
+        starts[ImladrisCalendar.PERIOD] = index;
+        index = parseName(text, index, ImladrisCalendar.PERIOD, values);
+      } else if (kind == 'Y') {
+        starts[ImladrisCalendar.YEN] = index;
+        int end = index;
+        while (end < text.length() && "IVXLCDMivxlcdm".indexOf(text.charAt(end)) != -1) {
+          end++;
+        }
+        values[ImladrisCalendar.YEN] = ImladrisCalendar.fromRoman(text, index, end);
+        index = end > index ? end : ~index;
+      } else {
+        starts[this.fields[i]] = index;
+        index = parseNumber(text, index, this.widths[i], this.fields[i], values);
+      }
+    }
+    return index;
+  }
+
+  private static int parseName(CharSequence text, int index, int field, int[] values) {
+    int count = field == ImladrisCalendar.PERIOD ? ImladrisCalendar.METTARE
+        : ImladrisCalendar.VALANYA;
+    for (int value = 1; value <= count; value++) {
+      String name = field == ImladrisCalendar.PERIOD ? ImladrisCalendar.periodName(value)
+          : ImladrisCalendar.dayOfWeekName(value);
+      if (parseName(text, index, name)) {
+        values[field] = value;
+        return index + name.length();
+      }
+    }
+    return ~index;
+  }
+
+  private static boolean parseName(CharSequence text, int index, String name) {
+    if (index + name.length() > text.length()) {
+      return false;
+    }
+    for (int i = 0; i < name.length(); i++) {
+      if (text.charAt(index + i) != name.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int parseNumber(CharSequence text, int index, int width, int field,
+                                 int[] values) {
+    int maxDigits = width > 1 ? width : MAX_NUMBER_DIGITS;
+    int value = 0;
+    int end = index;
+    while (end < text.length() && end - index < maxDigits) {
+      char c = text.charAt(end);
+      if (c < '0' || c > '9') {
+        break;
+      }
+      value = value * 10 + (c - '0');
+      end++;
+    }
+    if (end == index || (width > 1 && end - index < width)) {
+      return ~end;
+    }
+    if (value == 0) {
+      // every field starts at 1, and 0 stands for not parsed
+      return ~index;
+    }
+    values[field] = value;
+    return end;
+  }
+
+  /**
+   * First of the parsed fields that a date can not be resolved from, checking yen, loa and
+   * either day of loa or period and day of period as ImladrisDate.of does.
+   * @param values Fields parsed, 0 if not parsed
+   * @return Field id, or -1 if the date can be resolved
+   */
+  private static int invalidField(int[] values) {
+    int yen = values[ImladrisCalendar.YEN];
+    int loa = values[ImladrisCalendar.LOA];
+    if (yen < 1 || yen > 16) {
+      return ImladrisCalendar.YEN;
+    }
+    if (loa < 1 || loa > 144) {
+      return ImladrisCalendar.LOA;
+    }
+    int y = (yen - 1) * 144 + loa;
+    int dayOfLoa = values[ImladrisCalendar.DAY_OF_LOA];
+    if (dayOfLoa != 0) {
+      return dayOfLoa > ImladrisCalendar.loaLength(y) ? ImladrisCalendar.DAY_OF_LOA : -1;
+    }
+    int period = values[ImladrisCalendar.PERIOD];
+    if (period < ImladrisCalendar.YESTARE || period > ImladrisCalendar.METTARE) {
+      return ImladrisCalendar.PERIOD;
+    }
+    int dayOfPeriod = values[ImladrisCalendar.DAY_OF_PERIOD];
+    boolean leap = ImladrisCalendar.checkIfLeapLoa(loa);
+    if (dayOfPeriod > ImladrisCalendar.lengthOfPeriod(period, leap)
+        || ImladrisCalendar.calculateDayOfLoa(period, dayOfPeriod == 0 ? 1 : dayOfPeriod, leap)
+        > ImladrisCalendar.loaLength(y)) {
+      // a loa cut short ends before the last days of its periods
+      return dayOfPeriod == 0 ? ImladrisCalendar.PERIOD : ImladrisCalendar.DAY_OF_PERIOD;
+    }
+    return -1;
+  }
+
+  /**
+   * Date of the parsed fields, from yen, loa and either day of loa or period and day of period.
+   * @param values Fields parsed, 0 if not parsed, already checked by invalidField
+   * @return Imladris date
+   */
+  private static ImladrisDate resolve(int[] values) {
+    int yen = values[ImladrisCalendar.YEN];
+    int loa = values[ImladrisCalendar.LOA];
+    int dayOfLoa = values[ImladrisCalendar.DAY_OF_LOA];
+    if (dayOfLoa != 0) {
+      return ImladrisDate.of(yen, loa, dayOfLoa);
+    }
+    int dayOfPeriod = values[ImladrisCalendar.DAY_OF_PERIOD];
+    return ImladrisDate.of(yen, loa, values[ImladrisCalendar.PERIOD],
+        dayOfPeriod == 0 ? 1 : dayOfPeriod);
+  }
+
+  /**
+   * First of the parsed fields that does not match the date, such as a wrong day of week.
+   * @param values Fields parsed, 0 if not parsed
+   * @param date Date resolved from them
+   * @return Field id, or -1 if all of them match
+   */
+  private static int mismatchedField(int[] values, ImladrisDate date) {
+    for (int field = 0; field < FIELD_COUNT; field++) {
+      if (values[field] != 0 && values[field] != date.get(field)) {
+        return field;
+      }
+    }
+    return -1;
+  }
+
+}
@@ -0,0 +1,93 @@
+package com.erutulco.utils;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator over a range of consecutive Imladris dates.
+ * Each date is derived from the previous one, and splits happen on loa boundaries only,
+ * so that every part starts with a single full calculation.
+ */
+final class ImladrisDateSpliterator implements Spliterator<ImladrisDate> {
+
+  /**
+   * Packed epoch day and fields of the next date to return, if any.
+   */
+  private long next;
+  /**
+   * Epoch day of the next date to return.
+   */
+  private int day;
+  /**
+   * Epoch day after the last date to return.
+   */
+  private final int end;
+
+  ImladrisDateSpliterator(long next, int day, int end) {
+    this.next = next;
+    this.day = day;
+    this.end = end;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super ImladrisDate> action) {
+    if (this.day >= this.end) {
+      return false;
+    }
+    ImladrisDate date = new ImladrisDate(this.next);
+    this.day++;
+    if (this.day < this.end) {
+      this.next = ImladrisDate.next(this.next);
+    }
+    action.accept(date);
+    return true;
+  }
+
+  @Override
+  public void forEachRemaining(Consumer<? super ImladrisDate> action) {
+    while (this.tryAdvance(action)) {
+      // keep advancing
+    }
+  }
+
+  /**
+   * Split off the dates before the loa boundary closest to the middle of the range.
+   * @return Spliterator for the first part, or null if the range is within a single loa
+   */
+  @Override
+  public Spliterator<ImladrisDate> trySplit() {
+    if (this.day >= this.end) {
+      return null;
+    }
+    int middle = this.day + (this.end - this.day) / 2;
+    int y = ImladrisCalendar.loaYear(middle);
+    int boundary = ImladrisCalendar.yestareEpochDay(y);
+    if (boundary <= this.day) {
+      boundary += ImladrisCalendar.loaLength(y);
+    }
+    if (boundary >= this.end) {
+      return null;
+    }
+    Spliterator<ImladrisDate> prefix = new ImladrisDateSpliterator(this.next, this.day, boundary);
+    this.next = ImladrisDate.pack(boundary);
+    this.day = boundary;
+    return prefix;
+  }
+
+  @Override
+  public long estimateSize() {
+    return Math.max(this.end - this.day, 0);
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED | DISTINCT | SORTED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+  }
+
+  @Override
+  public Comparator<? super ImladrisDate> getComparator() {
+    return null;
+  }
+
+}
@@ -0,0 +1,119 @@
+package com.erutulco.utils;
+
+import java.io.IOException;
+
+/**
+ * Discovery of the public IP address through a provider, caching the address found.
+ * The provider is asked again once the refresh interval has passed; if it then fails, the
+ * previous address is kept. Concurrent callers wait for a single request to the provider.
+ * With a refresh interval of 0 nothing is cached or kept: every call asks the provider, as
+ * per request providers need, and fails if it does. It is safe to share between threads.
+ */
+public class IpAddressDiscovery {
+
+  private final IpAddressProvider provider;
+  private final long refreshMillis;
+  private volatile String ipAddress;
+  private volatile long fetchedAt;
+
+  /**
+   * IP address discovery.
+   * @param provider IP address provider
+   * @param refreshMillis Time in milliseconds after which the provider is asked again,
+   *                      0 to ask it every time
+   */
+  public IpAddressDiscovery(IpAddressProvider provider, long refreshMillis) {
+    if (provider == null) {
+      throw new IllegalArgumentException("Invalid provider: " + provider);
+    }
+    if (refreshMillis < 0) {
+      throw new IllegalArgumentException("Invalid refresh interval: " + refreshMillis);
+    }
+    this.provider = provider;
+    this.refreshMillis = refreshMillis;
+  }
+
+  /**
+   * Get the IP address, from the provider if not cached or expired.
+   * @return IP address string
+   * @throws IOException If the provider fails, or finds no address, and none is cached
+   */
+  public String getIpAddress() throws IOException {
+    if (this.refreshMillis == 0) {
+      return this.ask();
+    }
+    String cached = this.getCachedIpAddress();
+    return cached != null ? cached : this.fetch(false);
+  }
+
+  /**
+   * Get the IP address if cached and not expired, without asking the provider.
+   * @return IP address string, or null
+   */
+  public String getCachedIpAddress() {
+    String cached = this.ipAddress;
+    if (cached != null && System.currentTimeMillis() - this.fetchedAt < this.refreshMillis) {
+      return cached;
+    }
+    return null;
+  }
+
+  /**
+   * Ask the provider for the IP address, even if cached.
+   * @return IP address string
+   * @throws IOException If the provider fails, or finds no address
+   */
+  public String refresh() throws IOException {
+    return this.refreshMillis == 0 ? this.ask() : this.fetch(true);
+  }
+
+  /**
+   * Forget the cached IP address, i.e.: after a network change.
+   */
+  public synchronized void invalidate() {
+    this.ipAddress = null;
+  }
+
+  public IpAddressProvider getProvider() {
+    return this.provider;
+  }
+
+  public long getRefreshMillis() {
+    return this.refreshMillis;
+  }
+
+  private synchronized String fetch(boolean force) throws IOException {
+    // another caller may have fetched it while this one waited
+    String cached = this.getCachedIpAddress();
+    if (cached != null && !force) {
+      return cached;
+    }
+    String stale = this.ipAddress;
+    String ip;
+    try {
+      ip = this.ask();
+    } catch (IOException e) {
+      if (stale == null || force) {
+        throw e;
+      }
+      return stale;
+    }
+    this.fetchedAt = System.currentTimeMillis();
+    this.ipAddress = ip;
+    return ip;
+  }
+
+  /**
+   * Ask the provider for the IP address, without caching it.
+   * @return IP address string
+   * @throws IOException If the provider fails, or finds no address
+   */
+  private String ask() throws IOException {
+    String ip = this.provider.getIpAddress();
+    if (ip == null) {
+      throw new IOException("IP address not found");
+    }
+    return ip;
+  }
+
+}
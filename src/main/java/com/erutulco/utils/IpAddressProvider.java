@@ -0,0 +1,18 @@
+package com.erutulco.utils;
+
+import java.io.IOException;
+
+/**
+ * Source of the public IP address of this host, or of the client being served.
+ */
+@FunctionalInterface
+public interface IpAddressProvider {
+
+  /**
+   * Find the IP address.
+   * @return IP address string, or null if this provider can not tell it
+   * @throws IOException Network errors
+   */
+  String getIpAddress() throws IOException;
+
+}
@@ -1,5 +1,7 @@
 package com.erutulco.utils;
 
+import java.util.Objects;
+
 public class LocationInfo {
 
   private String timeZone;
@@ -42,4 +44,25 @@ public class LocationInfo {
     this.lng = lng;
   }
 
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof LocationInfo)) {
+      return false;
+    }
+    LocationInfo other = (LocationInfo) obj;
+    return Double.compare(this.lat, other.lat) == 0
+        && Double.compare(this.lng, other.lng) == 0
+        && Objects.equals(this.timeZone, other.timeZone);
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = Objects.hashCode(this.timeZone);
+    hash = 31 * hash + Double.hashCode(this.lat);
+    return 31 * hash + Double.hashCode(this.lng);
+  }
+
 }
@@ -0,0 +1,210 @@
+package com.erutulco.utils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Size bounded, least recently used cache of location info, with expiration.
+ * Keys are location strings, as in SunsetUtils.makeLocationString, normalised so that case and
+ * surrounding spaces do not matter. It is safe to share between threads.
+ */
+public class LocationInfoCache {
+
+  private final int maxSize;
+  private final long ttlMillis;
+  private final LinkedHashMap<String, CachedLocation> entries;
+  private long hits = 0;
+  private long misses = 0;
+  private long evictions = 0;
+
+  /**
+   * Location info cache.
+   * @param maxSize Maximum amount of locations kept
+   * @param ttlMillis Time in milliseconds after which a location is looked up again
+   */
+  public LocationInfoCache(int maxSize, long ttlMillis) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("Invalid max size: " + maxSize);
+    }
+    if (ttlMillis < 1) {
+      throw new IllegalArgumentException("Invalid TTL: " + ttlMillis);
+    }
+    this.maxSize = maxSize;
+    this.ttlMillis = ttlMillis;
+    this.entries = new LinkedHashMap<String, CachedLocation>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CachedLocation> eldest) {
+        boolean remove = this.size() > LocationInfoCache.this.maxSize;
+        if (remove) {
+          LocationInfoCache.this.evictions++;
+        }
+        return remove;
+      }
+    };
+  }
+
+  /**
+   * Normalise a location string to be used as key.
+   * @param city City
+   * @param country Country
+   * @return Key, empty if both city and country are empty
+   */
+  public static String makeKey(String city, String country) {
+    return SunsetUtils.makeLocationString(city.trim(), country.trim())
+        .replaceAll("\\s+", " ")
+        .toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Get the cached info of a location, if present and not expired.
+   * @param key Location key, as returned by makeKey
+   * @return Copy of the location info, or null
+   */
+  public synchronized LocationInfo get(String key) {
+    CachedLocation entry = this.entries.get(key);
+    if (entry != null && this.isExpired(entry, System.currentTimeMillis())) {
+      this.entries.remove(key);
+      this.evictions++;
+      entry = null;
+    }
+    if (entry == null) {
+      this.misses++;
+      return null;
+    }
+    this.hits++;
+    return copy(entry.info);
+  }
+
+  /**
+   * Cache the info of a location.
+   * @param key Location key, as returned by makeKey
+   * @param info Location info, copied
+   */
+  public synchronized void put(String key, LocationInfo info) {
+    this.entries.put(key, new CachedLocation(copy(info), System.currentTimeMillis()));
+  }
+
+  /**
+   * Remove every cached location, keeping the counters.
+   */
+  public synchronized void clear() {
+    this.entries.clear();
+  }
+
+  public synchronized int size() {
+    return this.entries.size();
+  }
+
+  public int getMaxSize() {
+    return this.maxSize;
+  }
+
+  public long getTtlMillis() {
+    return this.ttlMillis;
+  }
+
+  public synchronized long getHitCount() {
+    return this.hits;
+  }
+
+  public synchronized long getMissCount() {
+    return this.misses;
+  }
+
+  public synchronized long getEvictionCount() {
+    return this.evictions;
+  }
+
+  /**
+   * Write every non expired location to a file, replacing it.
+   * Each line holds key, time zone, latitude, longitude and caching time, tab separated.
+   * @param file File to write
+   * @throws IOException If the file can not be written
+   */
+  public void save(Path file) throws IOException {
+    List<String> lines = new ArrayList<>();
+    synchronized (this) {
+      long now = System.currentTimeMillis();
+      for (Map.Entry<String, CachedLocation> item : this.entries.entrySet()) {
+        CachedLocation entry = item.getValue();
+        if (!this.isExpired(entry, now)) {
+          lines.add(item.getKey() + '\t' + entry.info.getTimeZone() + '\t' + entry.info.getLat()
+              + '\t' + entry.info.getLng() + '\t' + entry.storedAt);
+        }
+      }
+    }
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+      for (String line : lines) {
+        writer.write(line);
+        writer.newLine();
+      }
+    }
+    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  /**
+   * Add the non expired locations of a file written by save.
+   * They are added in file order, least recently used first, keeping their caching time.
+   * @param file File to read
+   * @throws IOException If the file can not be read or is malformed
+   */
+  public void load(Path file) throws IOException {
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.isEmpty()) {
+          continue;
+        }
+        String[] parts = line.split("\t");
+        CachedLocation entry;
+        try {
+          if (parts.length != 5) {
+            throw new IllegalArgumentException("Invalid field count: " + parts.length);
+          }
+          LocationInfo info = new LocationInfo(parts[1], Double.parseDouble(parts[2]),
+              Double.parseDouble(parts[3]));
+          entry = new CachedLocation(info, Long.parseLong(parts[4]));
+        } catch (IllegalArgumentException e) {
+          throw new IOException("Invalid location cache line: " + line, e);
+        }
+        synchronized (this) {
+          if (!this.isExpired(entry, System.currentTimeMillis())) {
+            this.entries.put(parts[0], entry);
+          }
+        }
+      }
+    }
+  }
+
+  private boolean isExpired(CachedLocation entry, long now) {
+    return now - entry.storedAt >= this.ttlMillis;
+  }
+
+  private static LocationInfo copy(LocationInfo info) {
+    return new LocationInfo(info.getTimeZone(), info.getLat(), info.getLng());
+  }
+
+  private static class CachedLocation {
+
+    private final LocationInfo info;
+    private final long storedAt;
+
+    private CachedLocation(LocationInfo info, long storedAt) {
+      this.info = info;
+      this.storedAt = storedAt;
+    }
+
+  }
+
+}
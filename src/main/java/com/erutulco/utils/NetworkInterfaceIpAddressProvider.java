@@ -0,0 +1,49 @@
+package com.erutulco.utils;
+
+import java.io.IOException;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.util.Collections;
+
+/**
+ * IP address provider reading the addresses of the local network interfaces, without network
+ * requests. It only finds public addresses, so hosts behind NAT get null.
+ */
+public class NetworkInterfaceIpAddressProvider implements IpAddressProvider {
+
+  @Override
+  public String getIpAddress() throws IOException {
+    String ipv6 = null;
+    for (NetworkInterface networkInterface
+        : Collections.list(NetworkInterface.getNetworkInterfaces())) {
+      if (!networkInterface.isUp() || networkInterface.isLoopback()
+          || networkInterface.isVirtual()) {
+        continue;
+      }
+      for (InetAddress address : Collections.list(networkInterface.getInetAddresses())) {
+        if (isPublic(address)) {
+          String ip = address.getHostAddress();
+          if (address instanceof Inet4Address) {
+            return ip;
+          }
+          if (ipv6 == null) {
+            // drop the scope (i.e.: '%eth0')
+            int scope = ip.indexOf('%');
+            ipv6 = scope == -1 ? ip : ip.substring(0, scope);
+          }
+        }
+      }
+    }
+    return ipv6;
+  }
+
+  private static boolean isPublic(InetAddress address) {
+    boolean uniqueLocal = !(address instanceof Inet4Address)
+        && (address.getAddress()[0] & 0xFE) == 0xFC;
+    return !address.isLoopbackAddress() && !address.isLinkLocalAddress()
+        && !address.isSiteLocalAddress() && !address.isAnyLocalAddress()
+        && !address.isMulticastAddress() && !uniqueLocal;
+  }
+
+}
@@ -0,0 +1,170 @@
+package com.erutulco.utils;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Cache of sunset times by location and day.
+ * Sunsets are calculated a whole loa at a time, and kept as minutes of day, so repeated
+ * lookups are array reads. Least recently used locations are evicted past the maximum amount.
+ * Lookups do not lock, so it is safe and cheap to share between threads.
+ */
+public class SunsetCache {
+
+  /**
+   * Minutes of day stored for days in which the sun does not set.
+   */
+  private static final short NO_SUNSET_MINUTE = -1;
+
+  private final int maxLocations;
+  private final ConcurrentHashMap<LocationInfo, LocationSunsets> locations =
+      new ConcurrentHashMap<>();
+  /**
+   * Logical clock, to find the least recently used location. A lookup only advances it when
+   * its location is not the last one stamped, so repeated lookups of a location do not write.
+   */
+  private final AtomicLong clock = new AtomicLong();
+
+  /**
+   * Sunset cache.
+   * @param maxLocations Maximum amount of locations kept
+   */
+  public SunsetCache(int maxLocations) {
+    if (maxLocations < 1) {
+      throw new IllegalArgumentException("Invalid max locations: " + maxLocations);
+    }
+    this.maxLocations = maxLocations;
+  }
+
+  /* ************* API Methods ************* */
+
+  /**
+   * Sunset time of the given day, in the location time zone.
+   * @param info Location info
+   * @param date Day
+   * @return Sunset time, precise to the minute, or null if the sun does not set
+   */
+  public LocalTime getSunset(LocationInfo info, LocalDate date) {
+    int secondOfDay = this.getSunsetSecondOfDay(info, date.toEpochDay());
+    return secondOfDay == SunsetCalculator.NO_SUNSET ? null : LocalTime.ofSecondOfDay(secondOfDay);
+  }
+
+  /**
+   * Sunset time of the given day, in the location time zone.
+   * Days out of the Imladris calendar range are calculated, but not cached.
+   * @param info Location info
+   * @param epochDay Days since 1970-01-01, as in LocalDate
+   * @return Sunset second of day, multiple of 60, or SunsetCalculator.NO_SUNSET
+   */
+  public int getSunsetSecondOfDay(LocationInfo info, long epochDay) {
+    LocationSunsets sunsets = this.getLocationSunsets(info);
+    if (epochDay < ImladrisDate.MIN_EPOCH_DAY || epochDay > ImladrisDate.MAX_EPOCH_DAY) {
+      return sunsets.calculator.getSunsetSecondOfDay(epochDay);
+    }
+    int y = ImladrisCalendar.loaYear((int) epochDay);
+    short minute = sunsets.getLoa(y)[(int) epochDay - ImladrisCalendar.yestareEpochDay(y)];
+    return minute == NO_SUNSET_MINUTE ? SunsetCalculator.NO_SUNSET : minute * 60;
+  }
+
+  /**
+   * Sunset calculator of a location, kept along with its cached sunsets.
+   * @param info Location info
+   * @return Sunset calculator
+   */
+  public SunsetCalculator getCalculator(LocationInfo info) {
+    return this.getLocationSunsets(info).calculator;
+  }
+
+  public int size() {
+    return this.locations.size();
+  }
+
+  public int getMaxLocations() {
+    return this.maxLocations;
+  }
+
+  /**
+   * Remove every cached location.
+   */
+  public void clear() {
+    this.locations.clear();
+  }
+
+  private LocationSunsets getLocationSunsets(LocationInfo info) {
+    LocationSunsets sunsets = this.locations.get(info);
+    if (sunsets == null) {
+      sunsets = this.addLocation(info);
+    }
+    if (sunsets.lastAccess != this.clock.get()) {
+      sunsets.lastAccess = this.clock.incrementAndGet();
+    }
+    return sunsets;
+  }
+
+  private synchronized LocationSunsets addLocation(LocationInfo info) {
+    LocationSunsets sunsets = this.locations.get(info);
+    if (sunsets == null) {
+      if (this.locations.size() >= this.maxLocations) {
+        this.evictLeastRecentlyUsed();
+      }
+      // the calculator copies the location info, so later changes to it do not affect the key
+      SunsetCalculator calculator = new SunsetCalculator(info);
+      sunsets = new LocationSunsets(calculator, this.clock.incrementAndGet());
+      this.locations.put(calculator.getLocationInfo(), sunsets);
+    }
+    return sunsets;
+  }
+
+  private void evictLeastRecentlyUsed() {
+    LocationInfo eldest = null;
+    long eldestAccess = Long.MAX_VALUE;
+    for (Map.Entry<LocationInfo, LocationSunsets> entry : this.locations.entrySet()) {
+      if (entry.getValue().lastAccess < eldestAccess) {
+        eldest = entry.getKey();
+        eldestAccess = entry.getValue().lastAccess;
+      }
+    }
+    if (eldest != null) {
+      this.locations.remove(eldest);
+    }
+  }
+
+  /**
+   * Calculator and sunsets of a location, one table per loa, filled on first use.
+   */
+  private static class LocationSunsets {
+
+    private final SunsetCalculator calculator;
+    private final AtomicReferenceArray<short[]> loar =
+        new AtomicReferenceArray<>(16 * 144 + 1);
+    private volatile long lastAccess;
+
+    private LocationSunsets(SunsetCalculator calculator, long lastAccess) {
+      this.calculator = calculator;
+      this.lastAccess = lastAccess;
+    }
+
+    private short[] getLoa(int y) {
+      short[] minutes = this.loar.get(y);
+      if (minutes == null) {
+        int[] seconds = new int[ImladrisCalendar.loaLength(y)];
+        this.calculator.fillSunsets(ImladrisCalendar.yestareEpochDay(y), seconds, 0,
+            seconds.length);
+        minutes = new short[seconds.length];
+        for (int i = 0; i < seconds.length; i++) {
+          minutes[i] = seconds[i] == SunsetCalculator.NO_SUNSET
+              ? NO_SUNSET_MINUTE : (short) (seconds[i] / 60);
+        }
+        // concurrent fills calculate the same table, so any of them can be kept
+        this.loar.compareAndSet(y, null, minutes);
+      }
+      return minutes;
+    }
+
+  }
+
+}
@@ -0,0 +1,280 @@
+package com.erutulco.utils;
+
+import com.luckycatlabs.sunrisesunset.Zenith;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.zone.ZoneRules;
+import java.util.TimeZone;
+
+/**
+ * Official sunset calculator for a single location, built once and reused for any day.
+ * It follows the algorithm of SunriseSunsetCalculator, which SunsetUtils.calculateSunset uses,
+ * rounding every step to 4 decimals as it does. The exact decimal steps use fixed point longs
+ * and the trigonometric ones use doubles, so results match it to the minute.
+ * The time zone offset and daylight saving time of each day are taken at its local noon, from
+ * java.time rules, which only differ from java.util.TimeZone in a few future rules.
+ * Instances are immutable and safe to share between threads.
+ */
+public class SunsetCalculator {
+
+  /**
+   * Value returned for days in which the sun does not set, or does not rise.
+   */
+  public static final int NO_SUNSET = -1;
+
+  /**
+   * Fixed point units per unit, for 4 decimals.
+   */
+  private static final long UNITS = 10000;
+  private static final double DEGREES_TO_RADIANS = 0.017453292519943295;
+  private static final double RADIANS_TO_DEGREES = 57.29577951308232;
+  /**
+   * Epoch second of 1900-01-01T00:00Z, before which java.util.TimeZone uses the current
+   * standard offset of a zone, without daylight saving time.
+   */
+  private static final long TIME_ZONE_HISTORY_START = -2208988800L;
+
+  private final LocationInfo info;
+  private final ZoneRules rules;
+  private final long rawOffsetMillis;
+  /**
+   * Longitude hour, in fixed point units.
+   */
+  private final long baseLongitudeHour;
+  /**
+   * Fraction of the day added to the day of year to approximate sunset, in fixed point units.
+   */
+  private final long sunsetDayFraction;
+  private final double sinLatitude;
+  private final double cosLatitude;
+  private final double cosZenith;
+
+  /**
+   * Sunset calculator for the given location.
+   * @param info Location info, of which time zone, latitude and longitude are copied
+   */
+  public SunsetCalculator(LocationInfo info) {
+    this.info = new LocationInfo(info.getTimeZone(), info.getLat(), info.getLng());
+    TimeZone timeZone = TimeZone.getTimeZone(info.getTimeZone());
+    this.rules = timeZone.toZoneId().getRules();
+    this.rawOffsetMillis = timeZone.getRawOffset();
+    // same decimal parsing and rounding as SunriseSunsetCalculator
+    BigDecimal lat = new BigDecimal(Double.toString(info.getLat()));
+    BigDecimal lng = new BigDecimal(Double.toString(info.getLng()));
+    BigDecimal lngHour = lng.divide(BigDecimal.valueOf(15), 4, RoundingMode.HALF_EVEN);
+    this.baseLongitudeHour = toUnits(lngHour);
+    this.sunsetDayFraction = toUnits(BigDecimal.valueOf(18).subtract(lngHour)
+        .divide(BigDecimal.valueOf(24), 4, RoundingMode.HALF_EVEN));
+    double latRadians = toRadians(lat).doubleValue();
+    this.sinLatitude = Math.sin(latRadians);
+    this.cosLatitude = Math.cos(latRadians);
+    this.cosZenith = Math.cos(toRadians(Zenith.OFFICIAL.degrees()).doubleValue());
+  }
+
+  /* ************* API Methods ************* */
+
+  public LocationInfo getLocationInfo() {
+    return new LocationInfo(this.info.getTimeZone(), this.info.getLat(), this.info.getLng());
+  }
+
+  /**
+   * Sunset time of the given day, in the location time zone.
+   * @param date Day
+   * @return Sunset time, precise to the minute, or null if the sun does not set
+   */
+  public LocalTime getSunset(LocalDate date) {
+    int secondOfDay = this.getSunsetSecondOfDay(date.toEpochDay());
+    return secondOfDay == NO_SUNSET ? null : LocalTime.ofSecondOfDay(secondOfDay);
+  }
+
+  /**
+   * Sunset time of the given day, in the location time zone.
+   * @param epochDay Days since 1970-01-01, as in LocalDate
+   * @return Sunset second of day, multiple of 60, or NO_SUNSET
+   */
+  public int getSunsetSecondOfDay(long epochDay) {
+    int ymd = EpochDays.toYearMonthDay((int) epochDay);
+    int dayOfYear = (int) epochDay - EpochDays.of(EpochDays.year(ymd), 1, 1) + 1;
+    // offsets at local noon
+    long noon = epochDay * 86400 + 43200;
+    long offset;
+    if (noon < TIME_ZONE_HISTORY_START) {
+      offset = offsetHours(this.rawOffsetMillis);
+    } else {
+      Instant instant = Instant.ofEpochSecond(
+          noon - this.rules.getOffset(Instant.ofEpochSecond(noon)).getTotalSeconds());
+      offset = offsetHours(this.rules.getStandardOffset(instant).getTotalSeconds() * 1000L);
+      if (this.rules.isDaylightSavings(instant)) {
+        offset += UNITS;
+      }
+    }
+    return this.calculate(dayOfYear, offset);
+  }
+
+  /**
+   * Fill an array with the sunset times of consecutive days.
+   * @param firstEpochDay Epoch day of the first day
+   * @param secondsOfDay Array to fill with sunset seconds of day, or NO_SUNSET
+   * @param offset Index of the first day in the array
+   * @param length Amount of days
+   */
+  public void fillSunsets(long firstEpochDay, int[] secondsOfDay, int offset, int length) {
+    if (offset < 0 || length < 0 || offset + length > secondsOfDay.length) {
+      throw new IllegalArgumentException("Invalid array range: " + offset + ", " + length);
+    }
+    for (int i = 0; i < length; i++) {
+      secondsOfDay[offset + i] = this.getSunsetSecondOfDay(firstEpochDay + i);
+    }
+  }
+
+  /**
+   * Sunset times of every day of a loa, which end at the sunset of their Gregorian day.
+   * @param yen Yen integer (1-16)
+   * @param loa Loa integer (1-144)
+   * @return Sunset seconds of day, or NO_SUNSET, indexed by day of loa - 1
+   */
+  public int[] getSunsetsOfLoa(int yen, int loa) {
+    ImladrisDate yestare = ImladrisDate.of(yen, loa, 1);
+    int[] sunsets = new int[ImladrisCalendar.loaLength((yen - 1) * 144 + loa)];
+    this.fillSunsets(yestare.toEpochDay(), sunsets, 0, sunsets.length);
+    return sunsets;
+  }
+
+  /* ************* Calculation ************* */
+
+  /**
+   * Calculate official sunset.
+   * @param dayOfYear Day of year
+   * @param offset Time zone offset in hours, including daylight saving time, in fixed point
+   * @return Sunset second of day, or NO_SUNSET
+   */
+  private int calculate(int dayOfYear, long offset) {
+    long longitudeHour = dayOfYear * UNITS + this.sunsetDayFraction;
+    long meanAnomaly = divide(9856 * longitudeHour, UNITS) - 32890;
+    // true longitude of the sun
+    long meanAnomalyRadians = radians(meanAnomaly);
+    long trueLongitude = meanAnomaly
+        + round(Math.sin(meanAnomalyRadians / (double) UNITS) * 19160)
+        + round(Math.sin(2 * meanAnomalyRadians / (double) UNITS) * 200)
+        + 2826340;
+    if (trueLongitude > 360 * UNITS) {
+      trueLongitude -= 360 * UNITS;
+    }
+    long trueLongitudeRadians = radians(trueLongitude);
+    // local hour angle
+    long sinDeclination = round(
+        Math.sin(trueLongitudeRadians / (double) UNITS) * 3978.2);
+    long cosDeclination = round(
+        Math.cos(Math.asin(sinDeclination / (double) UNITS)) * UNITS);
+    long cosLocalHour = round(
+        (this.cosZenith - sinDeclination / (double) UNITS * this.sinLatitude)
+            / (cosDeclination / (double) UNITS * this.cosLatitude) * UNITS);
+    if (cosLocalHour < -UNITS || cosLocalHour > UNITS) {
+      return NO_SUNSET;
+    }
+    long localHourDegrees = round(
+        round(Math.acos(cosLocalHour / (double) UNITS) * UNITS) * RADIANS_TO_DEGREES);
+    long localHour = divide(localHourDegrees, 15);
+    // right ascension, in the same quadrant as the true longitude
+    long tanDegrees = round(
+        Math.tan(trueLongitudeRadians / (double) UNITS) * RADIANS_TO_DEGREES * UNITS);
+    long innerRadians = radians(divide(tanDegrees * 91764, 100000));
+    long rightAscension = round(
+        Math.atan(innerRadians / (double) UNITS) * RADIANS_TO_DEGREES * UNITS);
+    if (rightAscension < 0) {
+      rightAscension += 360 * UNITS;
+    } else if (rightAscension > 360 * UNITS) {
+      rightAscension -= 360 * UNITS;
+    }
+    long quadrant = 90 * UNITS;
+    rightAscension += Math.floorDiv(trueLongitude, quadrant) * quadrant
+        - Math.floorDiv(rightAscension, quadrant) * quadrant;
+    long rightAscensionHours = divide(rightAscension, 15);
+    // local mean time, with 9 decimals until rounded
+    long meanTime = (localHour + rightAscensionHours) * 100000
+        - 6571 * longitudeHour - 6622000000L;
+    if (meanTime < 0) {
+      meanTime += 24000000000L;
+    } else if (meanTime > 24000000000L) {
+      meanTime -= 24000000000L;
+    }
+    long localTime = divide(meanTime, 100000) - this.baseLongitudeHour + offset;
+    if (localTime > 24 * UNITS) {
+      localTime -= 24 * UNITS;
+    } else if (localTime < 0) {
+      localTime += 24 * UNITS;
+    }
+    int hour = (int) (localTime / UNITS);
+    int minute = (int) divide(localTime % UNITS * 60, UNITS);
+    return (hour * 3600 + minute * 60) % 86400;
+  }
+
+  /**
+   * Divide fixed point values, rounding half even.
+   * @param dividend Dividend
+   * @param divisor Divisor, positive
+   * @return Quotient
+   */
+  private static long divide(long dividend, long divisor) {
+    long quotient = Math.floorDiv(dividend, divisor);
+    long remainder = 2 * (dividend - quotient * divisor);
+    if (remainder > divisor || (remainder == divisor && (quotient & 1) != 0)) {
+      quotient++;
+    }
+    return quotient;
+  }
+
+  /**
+   * Round to the closest long, half even.
+   * @param value Value
+   * @return Rounded value
+   */
+  private static long round(double value) {
+    return (long) Math.rint(value);
+  }
+
+  /**
+   * Convert degrees to radians, both in fixed point.
+   * @param degrees Degrees
+   * @return Radians
+   */
+  private static long radians(long degrees) {
+    return round(degrees * DEGREES_TO_RADIANS);
+  }
+
+  private static BigDecimal toRadians(BigDecimal degrees) {
+    return degrees.multiply(BigDecimal.valueOf(DEGREES_TO_RADIANS))
+        .setScale(4, RoundingMode.HALF_EVEN);
+  }
+
+  private static long toUnits(BigDecimal value) {
+    return value.movePointRight(4).longValueExact();
+  }
+
+  /**
+   * Time zone offset in hours, with two significant digits, in fixed point.
+   * @param offsetMillis Offset in milliseconds
+   * @return Offset hours
+   */
+  private static long offsetHours(long offsetMillis) {
+    long abs = Math.abs(offsetMillis);
+    long hours;
+    if (abs >= 36000000) {
+      hours = (abs + 1800000) / 3600000 * UNITS;
+    } else if (abs >= 3600000) {
+      hours = (abs + 180000) / 360000 * (UNITS / 10);
+    } else if (abs >= 360000) {
+      hours = (abs + 18000) / 36000 * (UNITS / 100);
+    } else if (abs >= 36000) {
+      hours = (abs + 1800) / 3600 * (UNITS / 1000);
+    } else {
+      hours = (abs + 180) / 360;
+    }
+    return offsetMillis < 0 ? -hours : hours;
+  }
+
+}
@@ -1,44 +1,175 @@
 package com.erutulco.utils;
 
 import com.google.maps.GeoApiContext;
-import com.google.maps.GeocodingApi;
+import com.google.maps.OkHttpRequestHandler;
+import com.google.maps.PendingResult;
 import com.google.maps.TimeZoneApi;
-import com.google.maps.model.GeocodingResult;
+import com.google.maps.model.LatLng;
 import com.luckycatlabs.sunrisesunset.SunriseSunsetCalculator;
 import com.luckycatlabs.sunrisesunset.dto.Location;
 import com.maxmind.geoip.LookupService;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.net.URL;
 import java.util.Calendar;
 import java.util.TimeZone;
-
-import javax.net.ssl.HttpsURLConnection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.io.FileUtils;
 
 public class SunsetUtils {
 
+  /**
+   * Default Geo API requests per second of google-maps-services, set back by 0.
+   */
+  private static final int DEFAULT_GEO_API_QUERY_RATE_LIMIT = 10;
+  /**
+   * Default Geo API connect and read timeout of OkHttp, set back by 0.
+   */
+  private static final long DEFAULT_GEO_API_TIMEOUT_MILLIS = 10000;
+
   private static String GOOGLE_MAPS_API_KEY = null;
-  private static GeoApiContext geoApiContext = null;
+  private static int geoApiQueryRateLimit = 0;
+  private static long geoApiConnectTimeoutMillis = 0;
+  private static long geoApiReadTimeoutMillis = 0;
+  private static GeoApiContext.RequestHandler geoApiRequestHandler = null;
+  private static String geoApiBaseUrl = null;
+  private static OkHttpRequestHandler defaultGeoApiRequestHandler = null;
+  private static volatile GeoApiContext geoApiContext = null;
+  private static volatile LookupService lookupService = null;
+  private static volatile TimeZoneGrid timeZoneGrid = null;
+  private static volatile boolean timeZoneGridLoaded = false;
+  private static volatile boolean timeZoneApiFallback = true;
+  private static volatile Geocoder geocoder = null;
+  private static volatile LocationInfoCache locationInfoCache =
+      new LocationInfoCache(4096, TimeUnit.DAYS.toMillis(30));
+  private static volatile IpAddressDiscovery ipAddressDiscovery = new IpAddressDiscovery(
+      new HttpIpAddressProvider(HttpIpAddressProvider.DEFAULT_URL, 10000),
+      TimeUnit.MINUTES.toMillis(10));
 
-  public static void setGoogleMapsApiKey(String googleMapsApiKey) {
+  /**
+   * Set the Google Maps API key, to be used from the next Geo API request on.
+   * The current Geo API context is updated, not rebuilt.
+   * @param googleMapsApiKey API key
+   */
+  public static synchronized void setGoogleMapsApiKey(String googleMapsApiKey) {
     GOOGLE_MAPS_API_KEY = googleMapsApiKey;
+    if (geoApiContext != null) {
+      geoApiContext.setApiKey(googleMapsApiKey);
+    }
+  }
+
+  /**
+   * Set the maximum amount of Geo API requests per second, or 0 for the library default.
+   * The current Geo API context is updated, not rebuilt.
+   * @param queriesPerSecond Maximum requests per second
+   */
+  public static synchronized void setGeoApiQueryRateLimit(int queriesPerSecond) {
+    geoApiQueryRateLimit = queriesPerSecond;
+    if (geoApiContext != null) {
+      geoApiContext.setQueryRateLimit(
+          queriesPerSecond > 0 ? queriesPerSecond : DEFAULT_GEO_API_QUERY_RATE_LIMIT);
+    }
+  }
+
+  /**
+   * Set the Geo API connect and read timeouts, or 0 for the library defaults.
+   * The current Geo API context is updated, not rebuilt.
+   * @param connectTimeout Connect timeout
+   * @param readTimeout Read timeout
+   * @param unit Unit of both timeouts
+   */
+  public static synchronized void setGeoApiTimeouts(long connectTimeout, long readTimeout,
+                                                    TimeUnit unit) {
+    geoApiConnectTimeoutMillis = unit.toMillis(connectTimeout);
+    geoApiReadTimeoutMillis = unit.toMillis(readTimeout);
+    if (geoApiContext != null) {
+      geoApiContext.setConnectTimeout(geoApiConnectTimeoutMillis > 0
+          ? geoApiConnectTimeoutMillis : DEFAULT_GEO_API_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+      geoApiContext.setReadTimeout(geoApiReadTimeoutMillis > 0
+          ? geoApiReadTimeoutMillis : DEFAULT_GEO_API_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Set the transport for Geo API requests, or null for the default pooled OkHttp one.
+   * The Geo API context is rebuilt on its next use, with the current settings applied to the
+   * handler. The default handler is created once and reused, so its pool is never dropped.
+   * @param requestHandler Request handler
+   */
+  public static synchronized void setGeoApiRequestHandler(
+      GeoApiContext.RequestHandler requestHandler) {
+    if (requestHandler != geoApiRequestHandler) {
+      geoApiRequestHandler = requestHandler;
+      geoApiContext = null;
+    }
+  }
+
+  /**
+   * Send Geo API requests to another base URL, such as a local stand-in server,
+   * or to Google if null.
+   * The Geo API context is rebuilt on its next use, reusing its request handler.
+   * @param baseUrl Base URL, without trailing slash (i.e.: 'http://localhost:8080')
+   */
+  public static synchronized void setGeoApiBaseUrl(String baseUrl) {
+    if (baseUrl == null ? geoApiBaseUrl != null : !baseUrl.equals(geoApiBaseUrl)) {
+      geoApiBaseUrl = baseUrl;
+      geoApiContext = null;
+    }
   }
 
   /**
    * Get Google Geo API context.
+   * It is created once with the current settings, and shared by every thread so that its
+   * HTTP connections and rate limit are shared too. Setting the key, rate limit or timeouts
+   * updates it in place.
    * @return Geo API context
    */
   public static GeoApiContext getGeoApiContext() {
-    if (geoApiContext == null) {
-      geoApiContext = new GeoApiContext().setApiKey(GOOGLE_MAPS_API_KEY);
+    GeoApiContext context = geoApiContext;
+    if (context == null) {
+      synchronized (SunsetUtils.class) {
+        context = geoApiContext;
+        if (context == null) {
+          context = createGeoApiContext();
+          geoApiContext = context;
+        }
+      }
+    }
+    return context;
+  }
+
+  private static GeoApiContext createGeoApiContext() {
+    GeoApiContext.RequestHandler handler = geoApiRequestHandler;
+    if (handler == null) {
+      if (defaultGeoApiRequestHandler == null) {
+        defaultGeoApiRequestHandler = new OkHttpRequestHandler();
+      }
+      handler = defaultGeoApiRequestHandler;
+    }
+    if (geoApiBaseUrl != null) {
+      handler = new BaseUrlRequestHandler(geoApiBaseUrl, handler);
+    }
+    GeoApiContext context = new GeoApiContext(handler).setApiKey(GOOGLE_MAPS_API_KEY);
+    // the reused default handler may keep settings of a previous context, so 0 resets them
+    boolean reset = geoApiRequestHandler == null;
+    if (geoApiQueryRateLimit > 0 || reset) {
+      context.setQueryRateLimit(
+          geoApiQueryRateLimit > 0 ? geoApiQueryRateLimit : DEFAULT_GEO_API_QUERY_RATE_LIMIT);
+    }
+    if (geoApiConnectTimeoutMillis > 0 || reset) {
+      context.setConnectTimeout(geoApiConnectTimeoutMillis > 0
+          ? geoApiConnectTimeoutMillis : DEFAULT_GEO_API_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+    if (geoApiReadTimeoutMillis > 0 || reset) {
+      context.setReadTimeout(geoApiReadTimeoutMillis > 0
+          ? geoApiReadTimeoutMillis : DEFAULT_GEO_API_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
     }
-    return geoApiContext;
+    return context;
   }
 
   /**
@@ -70,23 +201,54 @@ public class SunsetUtils {
   public static String getIpAddress() {
     String ip = null;
     try {
-      URL url = new URL("https://api.ipify.org");
-      HttpsURLConnection connection = (HttpsURLConnection) url.openConnection();
-      connection.setDoOutput(true);
-      InputStream is = connection.getInputStream();
-      BufferedReader reader = new BufferedReader(new InputStreamReader(is));
-      StringBuilder out = new StringBuilder();
-      String line;
-      while ((line = reader.readLine()) != null) {
-        out.append(line);
-      }
-      ip = out.toString();
+      ip = fetchIpAddress();
     } catch (IOException e) {
       System.err.println(e.getMessage());
     }
     return ip;
   }
 
+  /**
+   * Get current IP address, without blocking the calling thread.
+   * @param executor Executor to run the request on, unless the address is cached
+   * @return Future IP address string, completed exceptionally on network errors
+   */
+  public static CompletableFuture<String> getIpAddressAsync(Executor executor) {
+    String cached = ipAddressDiscovery.getCachedIpAddress();
+    if (cached != null) {
+      return CompletableFuture.completedFuture(cached);
+    }
+    CompletableFuture<String> future = new CompletableFuture<>();
+    executor.execute(() -> {
+      try {
+        future.complete(fetchIpAddress());
+      } catch (IOException | RuntimeException e) {
+        future.completeExceptionally(e);
+      }
+    });
+    return future;
+  }
+
+  private static String fetchIpAddress() throws IOException {
+    return ipAddressDiscovery.getIpAddress();
+  }
+
+  public static IpAddressDiscovery getIpAddressDiscovery() {
+    return ipAddressDiscovery;
+  }
+
+  /**
+   * Set how getIpAddress finds the IP address, i.e.: from the local network interfaces.
+   * @param discovery IP address discovery, over HttpIpAddressProvider refreshed every 10 minutes
+   *                  by default
+   */
+  public static void setIpAddressDiscovery(IpAddressDiscovery discovery) {
+    if (discovery == null) {
+      throw new IllegalArgumentException("Invalid IP address discovery: null");
+    }
+    ipAddressDiscovery = discovery;
+  }
+
   /**
    * Calculate Country and City from IP Address.
    * @param ip IP address string
@@ -95,18 +257,7 @@ public class SunsetUtils {
   public static String[] getCountryAndCityFromIpAddress(String ip) {
     String[] res = new String[2];
     try {
-      InputStream is = SunsetUtils.class.getResourceAsStream(
-          "/com/erutulco/utils/maxmind/GeoLiteCity.dat"
-      );
-      File tempFile = File.createTempFile("GeoLiteCity", ".dat");
-      tempFile.deleteOnExit();
-      FileUtils.copyInputStreamToFile(is, tempFile);
-
-      LookupService cl = new LookupService(tempFile,
-          LookupService.GEOIP_MEMORY_CACHE | LookupService.GEOIP_CHECK_CACHE);
-      com.maxmind.geoip.Location location = cl.getLocation(ip);
-      res[0] = location.countryName;
-      res[1] = location.city;
+      res = lookupCountryAndCity(ip);
     } catch (IOException e) {
       System.err.println(e.getMessage());
     }
@@ -114,6 +265,74 @@ public class SunsetUtils {
     return res;
   }
 
+  private static String[] lookupCountryAndCity(String ip) throws IOException {
+    String[] res = new String[2];
+    com.maxmind.geoip.Location location = getLookupService().getLocation(ip);
+    if (location != null) {
+      res[0] = location.countryName;
+      res[1] = location.city;
+    }
+    return res;
+  }
+
+  /**
+   * Get MaxMind GeoLiteCity lookup service.
+   * The database is loaded in memory on first use, and shared by every thread.
+   * @return Lookup service
+   * @throws IOException If the database can not be read
+   */
+  public static LookupService getLookupService() throws IOException {
+    LookupService service = lookupService;
+    if (service == null) {
+      synchronized (SunsetUtils.class) {
+        service = lookupService;
+        if (service == null) {
+          service = createLookupService();
+          lookupService = service;
+        }
+      }
+    }
+    return service;
+  }
+
+  /**
+   * Release the MaxMind GeoLiteCity database, to be loaded again on next lookup.
+   */
+  public static synchronized void closeLookupService() {
+    if (lookupService != null) {
+      lookupService.close();
+      lookupService = null;
+    }
+  }
+
+  /**
+   * Load the MaxMind GeoLiteCity database again, replacing the one in use.
+   * @throws IOException If the database can not be read
+   */
+  public static synchronized void reloadLookupService() throws IOException {
+    LookupService service = createLookupService();
+    closeLookupService();
+    lookupService = service;
+  }
+
+  private static LookupService createLookupService() throws IOException {
+    // LookupService only reads from files, so the resource is copied to a temporary one,
+    // which is no longer needed once the database is cached in memory
+    File tempFile = File.createTempFile("GeoLiteCity", ".dat");
+    String resource = "/com/erutulco/utils/maxmind/GeoLiteCity.dat";
+    try (InputStream is = SunsetUtils.class.getResourceAsStream(resource)) {
+      if (is == null) {
+        throw new IOException("GeoLiteCity.dat resource not found");
+      }
+      FileUtils.copyInputStreamToFile(is, tempFile);
+      return new LookupService(tempFile, LookupService.GEOIP_MEMORY_CACHE);
+    } finally {
+      if (!tempFile.delete()) {
+        tempFile.deleteOnExit();
+      }
+    }
+  }
+
   /**
    * Get current Coutry and City by using current IP address.
    * @return Country, City string array
@@ -127,38 +346,249 @@ public class SunsetUtils {
     return result;
   }
 
-  private static GeocodingResult getGeocodingResult(String city, String country) throws Exception {
-    GeocodingResult result = null;
-    String place = makeLocationString(city, country);
-    if (place.length() > 0) {
-      GeocodingResult[] results = GeocodingApi.geocode(getGeoApiContext(), place).await();
-      if (results.length > 0) {
-        result = results[0];
+  /**
+   * Get current Country and City by using current IP address, without blocking the calling
+   * thread.
+   * @param executor Executor to run the requests on
+   * @return Future Country, City string array, completed exceptionally on errors
+   */
+  public CompletableFuture<String[]> getCurrentCountryAndCityAsync(Executor executor) {
+    return getIpAddressAsync(executor).thenApplyAsync(ip -> {
+      try {
+        return ip.isEmpty() ? new String[0] : lookupCountryAndCity(ip);
+      } catch (IOException e) {
+        throw new CompletionException(e);
+      }
+    }, executor);
+  }
+
+  /**
+   * Get geocoder of getLocationInfo, loaded on first use: the offline gazetteer if bundled as
+   * a resource, or GoogleGeocoder.
+   * @return Geocoder
+   */
+  public static Geocoder getGeocoder() {
+    Geocoder current = geocoder;
+    if (current == null) {
+      synchronized (SunsetUtils.class) {
+        current = geocoder;
+        if (current == null) {
+          String resource = "/com/erutulco/utils/gazetteer/Gazetteer.dat";
+          try (InputStream is = SunsetUtils.class.getResourceAsStream(resource)) {
+            if (is != null) {
+              current = GazetteerGeocoder.load(is);
+            }
+          } catch (IOException e) {
+            System.err.println(e.getMessage());
+          }
+          if (current == null) {
+            current = new GoogleGeocoder();
+          }
+          geocoder = current;
+        }
       }
     }
-    return result;
+    return current;
   }
 
-  private static TimeZone getTimeZone(GeocodingResult result) throws Exception {
-    return TimeZoneApi.getTimeZone(getGeoApiContext(), result.geometry.location).await();
+  /**
+   * Set the geocoder of getLocationInfo, i.e.: an offline GazetteerGeocoder from a file.
+   * @param newGeocoder Geocoder, the bundled gazetteer or GoogleGeocoder by default
+   */
+  public static void setGeocoder(Geocoder newGeocoder) {
+    if (newGeocoder == null) {
+      throw new IllegalArgumentException("Invalid geocoder: null");
+    }
+    geocoder = newGeocoder;
+  }
+
+  /**
+   * Get offline time zone grid.
+   * The bundled grid resource is loaded on first use, if present.
+   * @return Time zone grid, or null if there is none
+   */
+  public static TimeZoneGrid getTimeZoneGrid() {
+    if (!timeZoneGridLoaded) {
+      synchronized (SunsetUtils.class) {
+        if (!timeZoneGridLoaded) {
+          String resource = "/com/erutulco/utils/timezone/TimeZoneGrid.dat";
+          try (InputStream is = SunsetUtils.class.getResourceAsStream(resource)) {
+            if (is != null) {
+              timeZoneGrid = TimeZoneGrid.load(is);
+            }
+          } catch (IOException e) {
+            System.err.println(e.getMessage());
+          }
+          timeZoneGridLoaded = true;
+        }
+      }
+    }
+    return timeZoneGrid;
+  }
+
+  /**
+   * Set offline time zone grid, i.e.: a memory-mapped file opened with TimeZoneGrid.open.
+   * @param grid Time zone grid, or null to always use the Time Zone API
+   */
+  public static synchronized void setTimeZoneGrid(TimeZoneGrid grid) {
+    timeZoneGrid = grid;
+    timeZoneGridLoaded = true;
+  }
+
+  /**
+   * Set whether locations the time zone grid does not cover are resolved with the Google Time
+   * Zone API, or with the nautical time zone of their longitude (i.e.: 'Etc/GMT+3').
+   * @param fallback Use the Time Zone API, true by default
+   */
+  public static void setTimeZoneApiFallback(boolean fallback) {
+    timeZoneApiFallback = fallback;
+  }
+
+  private static String getTimeZoneId(LatLng location) throws Exception {
+    String id = getOfflineTimeZoneId(location);
+    if (id == null) {
+      id = TimeZoneApi.getTimeZone(getGeoApiContext(), location).await().getID();
+    }
+    return id;
+  }
+
+  private static CompletableFuture<String> getTimeZoneIdAsync(LatLng location) {
+    String id = getOfflineTimeZoneId(location);
+    if (id != null) {
+      return CompletableFuture.completedFuture(id);
+    }
+    return toFuture(TimeZoneApi.getTimeZone(getGeoApiContext(), location))
+        .thenApply(TimeZone::getID);
+  }
+
+  /**
+   * Time zone of a location, without network requests.
+   * @param location Location
+   * @return Time zone id, or null if the Time Zone API has to be used
+   */
+  private static String getOfflineTimeZoneId(LatLng location) {
+    TimeZoneGrid grid = getTimeZoneGrid();
+    String id = grid == null ? null : grid.getTimeZone(location.lat, location.lng);
+    if (id == null && !timeZoneApiFallback) {
+      int offset = (int) Math.round(location.lng / 15);
+      id = offset == 0 ? "Etc/GMT" : offset > 0 ? "Etc/GMT-" + offset : "Etc/GMT+" + -offset;
+    }
+    return id;
+  }
+
+  /**
+   * Get the cache of location info, i.e.: to read its counters or save it to disk.
+   * @return Location info cache, or null if disabled
+   */
+  public static LocationInfoCache getLocationInfoCache() {
+    return locationInfoCache;
+  }
+
+  /**
+   * Replace the cache of location info, 4096 locations for 30 days by default.
+   * @param cache Location info cache, or null to disable caching
+   */
+  public static void setLocationInfoCache(LocationInfoCache cache) {
+    locationInfoCache = cache;
   }
 
   /**
    * Get location info form city and country, including Time Zone, Latitude and Longitude.
+   * Places are found with the geocoder, the bundled gazetteer if any or Google by default, and
+   * results are cached, so only unknown or expired locations reach it.
    * @param city City string
    * @param country Country string
    * @return Location Info with TZ, Lat and Long
    * @throws Exception Geo API exceptions
    */
   public static LocationInfo getLocationInfo(String city, String country) throws Exception {
-    GeocodingResult result = getGeocodingResult(city, country);
-    if (result != null) {
-      TimeZone tz = getTimeZone(result);
-      double lat = result.geometry.location.lat;
-      double lng = result.geometry.location.lng;
-      return new LocationInfo(tz.getID(), lat, lng);
-    }
-    return null;
+    LocationInfoCache cache = locationInfoCache;
+    String key = null;
+    if (cache != null) {
+      key = LocationInfoCache.makeKey(city, country);
+      LocationInfo cached = cache.get(key);
+      if (cached != null) {
+        return cached;
+      }
+    }
+    LocationInfo info = getGeocoder().geocode(city, country);
+    if (info != null) {
+      if (info.getTimeZone() == null) {
+        info.setTimeZone(getTimeZoneId(new LatLng(info.getLat(), info.getLng())));
+      }
+      if (cache != null) {
+        cache.put(key, info);
+      }
+    }
+    return info;
+  }
+
+  /**
+   * Get location info form city and country, including Time Zone, Latitude and Longitude,
+   * without blocking the calling thread.
+   * Google requests are asynchronous, so many locations can be looked up in parallel;
+   * other geocoders and continuations run on the given executor.
+   * @param city City string
+   * @param country Country string
+   * @param executor Executor to run the continuations on
+   * @return Future Location Info with TZ, Lat and Long, or null if the location is not found;
+   *     completed exceptionally on Geo API errors
+   */
+  public static CompletableFuture<LocationInfo> getLocationInfoAsync(String city, String country,
+                                                                     Executor executor) {
+    LocationInfoCache cache = locationInfoCache;
+    String key = null;
+    if (cache != null) {
+      key = LocationInfoCache.makeKey(city, country);
+      LocationInfo cached = cache.get(key);
+      if (cached != null) {
+        return CompletableFuture.completedFuture(cached);
+      }
+    }
+    final String cacheKey = key;
+    return getGeocoder().geocodeAsync(city, country, executor)
+        .thenComposeAsync(found -> {
+          if (found == null) {
+            return CompletableFuture.completedFuture((LocationInfo) null);
+          }
+          CompletableFuture<String> timeZone = found.getTimeZone() != null
+              ? CompletableFuture.completedFuture(found.getTimeZone())
+              : getTimeZoneIdAsync(new LatLng(found.getLat(), found.getLng()));
+          return timeZone.thenApplyAsync(id -> {
+            LocationInfo info = new LocationInfo(id, found.getLat(), found.getLng());
+            if (cache != null) {
+              cache.put(cacheKey, info);
+            }
+            return info;
+          }, executor);
+        }, executor);
+  }
+
+  /**
+   * Future completed by a Geo API request, which is cancelled along with the future.
+   * @param request Pending request
+   * @param <T> Result type
+   * @return Future result
+   */
+  static <T> CompletableFuture<T> toFuture(PendingResult<T> request) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    request.setCallback(new PendingResult.Callback<T>() {
+      @Override
+      public void onResult(T result) {
+        future.complete(result);
+      }
+
+      @Override
+      public void onFailure(Throwable error) {
+        future.completeExceptionally(error);
+      }
+    });
+    future.whenComplete((result, error) -> {
+      if (future.isCancelled()) {
+        request.cancel();
+      }
+    });
+    return future;
   }
 
   /**
@@ -0,0 +1,186 @@
+package com.erutulco.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Offline resolver of time zone ids by latitude and longitude, from a grid of cells.
+ * Each row of the grid is run-length encoded, so oceans and large zones take little space,
+ * and a lookup is a binary search within a row. The grid is read in place from a buffer,
+ * memory-mapped when opened from a file, and is safe to share between threads.
+ * <br>
+ * Format, big endian: int magic 'TZG1', int columns, int rows, int zone count, each zone id as
+ * a short length and UTF-8 bytes, padding to a multiple of 4 bytes, int[rows + 1] index of the
+ * first run of each row, and the runs as ints, first column in the upper 16 bits and zone index
+ * in the lower 16, 0xFFFF if there is no zone.
+ */
+public class TimeZoneGrid {
+
+  private static final int MAGIC = 0x545A4731;
+  private static final int NO_ZONE = 0xFFFF;
+
+  private final int columns;
+  private final int rows;
+  private final String[] zones;
+  private final IntBuffer rowOffsets;
+  private final IntBuffer runs;
+
+  private TimeZoneGrid(ByteBuffer buffer) throws IOException {
+    if (buffer.remaining() < 16 || buffer.getInt() != MAGIC) {
+      throw new IOException("Not a time zone grid");
+    }
+    this.columns = buffer.getInt();
+    this.rows = buffer.getInt();
+    int zoneCount = buffer.getInt();
+    if (this.columns < 1 || this.columns > NO_ZONE || this.rows < 1 || zoneCount < 0
+        || zoneCount >= NO_ZONE) {
+      throw new IOException("Invalid time zone grid size");
+    }
+    this.zones = new String[zoneCount];
+    for (int i = 0; i < zoneCount; i++) {
+      byte[] name = new byte[buffer.getShort()];
+      buffer.get(name);
+      this.zones[i] = new String(name, StandardCharsets.UTF_8);
+    }
+    buffer.position((buffer.position() + 3) & ~3);
+    IntBuffer ints = buffer.slice().asIntBuffer();
+    if (ints.remaining() < this.rows + 1) {
+      throw new IOException("Truncated time zone grid");
+    }
+    ints.limit(this.rows + 1);
+    this.rowOffsets = ints.slice();
+    ints.limit(ints.capacity()).position(this.rows + 1);
+    this.runs = ints.slice();
+    if (this.rowOffsets.get(this.rows) > this.runs.capacity()) {
+      throw new IOException("Truncated time zone grid");
+    }
+  }
+
+  /**
+   * Open a grid file, memory-mapped.
+   * @param file Grid file
+   * @return Time zone grid
+   * @throws IOException If the file can not be read or is not a grid
+   */
+  public static TimeZoneGrid open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      return new TimeZoneGrid(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /**
+   * Read a grid from a stream, i.e.: a classpath resource, which can not be memory-mapped.
+   * @param in Grid stream, not closed
+   * @return Time zone grid
+   * @throws IOException If the stream can not be read or is not a grid
+   */
+  public static TimeZoneGrid load(InputStream in) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] chunk = new byte[65536];
+    int read;
+    while ((read = in.read(chunk)) != -1) {
+      out.write(chunk, 0, read);
+    }
+    return new TimeZoneGrid(ByteBuffer.wrap(out.toByteArray()));
+  }
+
+  /**
+   * Write a grid, i.e.: to build its file from time zone boundaries.
+   * @param out Stream to write to, not closed
+   * @param columns Columns, from longitude -180 eastwards
+   * @param rows Rows, from latitude 90 southwards
+   * @param zones Time zone ids
+   * @param cells Zone index of each cell, row by row, or -1 if there is no zone
+   * @throws IOException If the stream can not be written
+   */
+  public static void write(OutputStream out, int columns, int rows, String[] zones,
+                           short[] cells) throws IOException {
+    if (cells.length != columns * rows) {
+      throw new IllegalArgumentException("Invalid cell count: " + cells.length);
+    }
+    DataOutputStream data = new DataOutputStream(out);
+    data.writeInt(MAGIC);
+    data.writeInt(columns);
+    data.writeInt(rows);
+    data.writeInt(zones.length);
+    int size = 16;
+    for (String zone : zones) {
+      byte[] name = zone.getBytes(StandardCharsets.UTF_8);
+      data.writeShort(name.length);
+      data.write(name);
+      size += 2 + name.length;
+    }
+    for (; (size & 3) != 0; size++) {
+      data.writeByte(0);
+    }
+    // run-length encode every row, then write the index and the runs
+    int[] offsets = new int[rows + 1];
+    IntBuffer runs = IntBuffer.allocate(cells.length);
+    for (int row = 0; row < rows; row++) {
+      offsets[row] = runs.position();
+      int previous = -1;
+      for (int column = 0; column < columns; column++) {
+        int zone = cells[row * columns + column] & NO_ZONE;
+        if (column == 0 || zone != previous) {
+          runs.put((column << 16) | zone);
+          previous = zone;
+        }
+      }
+    }
+    offsets[rows] = runs.position();
+    for (int offset : offsets) {
+      data.writeInt(offset);
+    }
+    for (int i = 0; i < runs.position(); i++) {
+      data.writeInt(runs.get(i));
+    }
+    data.flush();
+  }
+
+  /* ************* API Methods ************* */
+
+  /**
+   * Time zone of a location.
+   * @param lat Latitude
+   * @param lng Longitude
+   * @return Time zone id, or null if the grid has none there
+   */
+  public String getTimeZone(double lat, double lng) {
+    if (!(lat >= -90 && lat <= 90 && lng >= -180 && lng <= 180)) {
+      throw new IllegalArgumentException("Invalid location: " + lat + ", " + lng);
+    }
+    int row = Math.min((int) ((90 - lat) * this.rows / 180), this.rows - 1);
+    int column = Math.min((int) ((lng + 180) * this.columns / 360), this.columns - 1);
+    // last run of the row starting at or before the column
+    int low = this.rowOffsets.get(row);
+    int high = this.rowOffsets.get(row + 1) - 1;
+    while (low < high) {
+      int middle = (low + high + 1) >>> 1;
+      if (this.runs.get(middle) >>> 16 <= column) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    int zone = this.runs.get(low) & NO_ZONE;
+    return zone == NO_ZONE ? null : this.zones[zone];
+  }
+
+  public int getColumns() {
+    return this.columns;
+  }
+
+  public int getRows() {
+    return this.rows;
+  }
+
+}
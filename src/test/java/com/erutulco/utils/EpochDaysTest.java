@@ -0,0 +1,57 @@
+package com.erutulco.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.LocalDate;
+import java.util.GregorianCalendar;
+
+import org.junit.Test;
+
+public class EpochDaysTest {
+
+  @Test
+  public void gregorianDatesMatchLocalDate() {
+    assertEquals(0, EpochDays.of(1970, 1, 1));
+    assertEquals(LocalDate.of(2000, 2, 29).toEpochDay(), EpochDays.of(2000, 2, 29));
+    assertEquals(LocalDate.of(2305, 3, 28).toEpochDay(), EpochDays.of(2305, 3, 28));
+    for (int epochDay = EpochDays.GREGORIAN_CUTOVER; epochDay < 150000; epochDay++) {
+      LocalDate date = LocalDate.ofEpochDay(epochDay);
+      int ymd = EpochDays.toYearMonthDay(epochDay);
+      assertEquals(date.getYear(), EpochDays.year(ymd));
+      assertEquals(date.getMonthValue(), EpochDays.month(ymd));
+      assertEquals(date.getDayOfMonth(), EpochDays.dayOfMonth(ymd));
+      assertEquals(epochDay, EpochDays.of(date.getYear(), date.getMonthValue(),
+          date.getDayOfMonth()));
+    }
+  }
+
+  @Test
+  public void julianDatesAreContinuousAcrossTheCutover() {
+    assertEquals(EpochDays.GREGORIAN_CUTOVER, EpochDays.of(1582, 10, 15));
+    assertEquals(EpochDays.GREGORIAN_CUTOVER - 1, EpochDays.of(1582, 10, 4));
+    // 1500 is a Julian leap year
+    assertEquals(2, EpochDays.of(1500, 3, 1) - EpochDays.of(1500, 2, 28));
+    int ymd = EpochDays.toYearMonthDay(EpochDays.GREGORIAN_CUTOVER - 1);
+    assertEquals(1582, EpochDays.year(ymd));
+    assertEquals(10, EpochDays.month(ymd));
+    assertEquals(4, EpochDays.dayOfMonth(ymd));
+  }
+
+  @Test
+  public void julianDatesMatchGregorianCalendar() {
+    GregorianCalendar cal = new GregorianCalendar(1, 2, 29);
+    for (int i = 0; i < 600000; i++) {
+      int ymd = EpochDays.toYearMonthDay(EpochDays.of(cal));
+      assertEquals(cal.get(GregorianCalendar.YEAR), EpochDays.year(ymd));
+      assertEquals(cal.get(GregorianCalendar.MONTH) + 1, EpochDays.month(ymd));
+      assertEquals(cal.get(GregorianCalendar.DAY_OF_MONTH), EpochDays.dayOfMonth(ymd));
+      assertEquals(EpochDays.of(cal) + 1, nextDay(cal));
+    }
+  }
+
+  private static int nextDay(GregorianCalendar cal) {
+    cal.add(GregorianCalendar.DAY_OF_MONTH, 1);
+    return EpochDays.of(cal);
+  }
+
+}
@@ -0,0 +1,101 @@
+package com.erutulco.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class GazetteerGeocoderTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Path file;
+
+  /**
+   * Write a small gazetteer file.
+   * @throws IOException If the file can not be written
+   */
+  @Before
+  public void setUp() throws IOException {
+    this.file = this.folder.newFile("Gazetteer.dat").toPath();
+    try (OutputStream out = Files.newOutputStream(this.file)) {
+      write(out);
+    }
+  }
+
+  @Test
+  public void geocodesNamesWithoutCaseOrAccents() throws IOException {
+    GazetteerGeocoder gazetteer = GazetteerGeocoder.open(this.file);
+    assertEquals(6, gazetteer.size());
+    LocationInfo saoPaulo = gazetteer.geocode("SÃO  PAULO", "brasil");
+    assertEquals("America/Sao_Paulo", saoPaulo.getTimeZone());
+    assertEquals(-23.55, saoPaulo.getLat(), 1e-4);
+    assertEquals(-46.63, saoPaulo.getLng(), 1e-4);
+    assertEquals(-34.9, gazetteer.geocode("Montevideo", "Uruguay").getLat(), 1e-4);
+    assertEquals(-36.4, gazetteer.geocode("Bogotá", "Bogota").getLat(), 1e-4);
+    assertNull(gazetteer.geocode("Bogota", "Bogota").getTimeZone());
+    assertNull(gazetteer.geocode("Sao Paulo", "Uruguay"));
+    assertNull(gazetteer.geocode("Paris", "France"));
+    assertNull(gazetteer.geocode("", "Uruguay"));
+  }
+
+  @Test
+  public void geocodesMostPopulatedCityWithoutCountry() throws IOException {
+    GazetteerGeocoder gazetteer = GazetteerGeocoder.open(this.file);
+    assertEquals("America/Sao_Paulo", gazetteer.geocode("salto", "").getTimeZone());
+    assertEquals(4.71, gazetteer.geocode("BOGOTÁ", "").getLat(), 1e-4);
+  }
+
+  @Test
+  public void findsNamesByPrefix() throws IOException {
+    GazetteerGeocoder gazetteer = GazetteerGeocoder.open(this.file);
+    assertEquals(Arrays.asList("Salto, Brasil", "Salto, Uruguay", "São Paulo, Brasil"),
+        gazetteer.findByPrefix("Sa", 10));
+    assertEquals(Arrays.asList("Salto, Brasil", "Salto, Uruguay"),
+        gazetteer.findByPrefix("SALTO", 10));
+    assertEquals(Collections.singletonList("Salto, Brasil"), gazetteer.findByPrefix("sal", 1));
+    assertEquals(Arrays.asList("Bogotá, Bogota", "Bogotá, Colombia"),
+        gazetteer.findByPrefix("bogo", 10));
+    assertEquals(Collections.emptyList(), gazetteer.findByPrefix("x", 10));
+  }
+
+  @Test
+  public void loadsFromStream() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    write(out);
+    GazetteerGeocoder gazetteer = GazetteerGeocoder.load(
+        new ByteArrayInputStream(out.toByteArray()));
+    assertEquals(6, gazetteer.size());
+    assertEquals(-23.55, gazetteer.geocode("sao paulo", "BRASIL").getLat(), 1e-4);
+  }
+
+  @Test(expected = IOException.class)
+  public void rejectsOtherFiles() throws IOException {
+    GazetteerGeocoder.load(new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 0, 0, 0, 0}));
+  }
+
+  private static void write(OutputStream out) throws IOException {
+    GazetteerGeocoder.write(out,
+        new String[] {"São Paulo", "Montevideo", "Salto", "Salto", "Bogotá", "Bogotá"},
+        new String[] {"Brasil", "Uruguay", "Uruguay", "Brasil", "Colombia", "Bogota"},
+        new double[] {-23.55, -34.9, -31.38, -23.2, 4.71, -36.4},
+        new double[] {-46.63, -56.17, -57.97, -47.29, -74.07, 145.0},
+        new String[] {"America/Sao_Paulo", "America/Montevideo", "America/Montevideo",
+            "America/Sao_Paulo", "America/Bogota", null},
+        new int[] {12000000, 1300000, 100000, 120000, 7000000, 10});
+  }
+
+}
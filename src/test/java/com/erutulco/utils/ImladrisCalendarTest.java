@@ -0,0 +1,199 @@
+package com.erutulco.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.GregorianCalendar;
+
+import org.junit.Test;
+
+public class ImladrisCalendarTest {
+
+  @Test
+  public void sunsetIsNullWhenNotDefined() {
+    ImladrisCalendar cal = new ImladrisCalendar(2017, 3, 1);
+    assertFalse(cal.isSunsetDefined());
+    assertNull(cal.getSunset());
+    assertNull(cal.getSunsetLocalTime());
+  }
+
+  @Test
+  public void sunsetIsReturnedWhenDefined() {
+    ImladrisCalendar cal = new ImladrisCalendar(LocalTime.of(18, 30), 2017, 3, 1);
+    assertTrue(cal.isSunsetDefined());
+    assertEquals(LocalTime.of(18, 30), cal.getSunsetLocalTime());
+    assertEquals(Time.valueOf("18:30:00"), cal.getSunset());
+  }
+
+  @Test
+  public void sunsetKeepsItsTimeWhenTurnedOffAndOn() {
+    ImladrisCalendar cal = new ImladrisCalendar(LocalTime.of(18, 30), 2017, 3, 1);
+    cal.setSunsetDefined(false);
+    assertNull(cal.getSunsetLocalTime());
+    cal.setSunsetDefined(true);
+    assertEquals(LocalTime.of(18, 30), cal.getSunsetLocalTime());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void sunsetCanNotBeDefinedWithoutTime() {
+    new ImladrisCalendar(2017, 3, 1).setSunsetDefined(true);
+  }
+
+  @Test
+  public void convertsEdgesOfLoar() {
+    // first supported day, Yestarë of I 1
+    assertConverts(1, 3, 29, 1, 1, 1, 1, 1, 1, 1);
+    // Mettarë and Yestarë of the next loa
+    assertConverts(2, 3, 28, 1, 1, 365, 9, 1, 61, 5);
+    assertConverts(2, 3, 29, 1, 2, 1, 1, 1, 1, 6);
+    // leap loa, 368 days
+    assertConverts(12, 3, 25, 1, 11, 365, 9, 1, 62, 1);
+    assertConverts(12, 3, 26, 1, 12, 1, 1, 1, 1, 2);
+    assertConverts(13, 3, 28, 1, 12, 368, 9, 1, 62, 3);
+    // leap loa 144, cut short by Yestarë of the next yen
+    assertConverts(432, 3, 26, 3, 144, 1, 1, 1, 1, 5);
+    assertConverts(433, 3, 25, 3, 144, 365, 8, 52, 62, 3);
+    assertConverts(433, 3, 26, 4, 1, 1, 1, 1, 1, 1);
+    // consecutive days across the Julian/Gregorian cutover
+    assertConverts(1582, 10, 4, 11, 142, 201, 6, 17, 34, 3);
+    assertConverts(1582, 10, 15, 11, 142, 202, 6, 18, 34, 4);
+    // epoch
+    assertConverts(1970, 1, 1, 14, 97, 278, 7, 40, 47, 2);
+    // Yestarë and leap Mettarë
+    assertConverts(2026, 3, 28, 15, 10, 1, 1, 1, 1, 4);
+    assertConverts(2029, 3, 29, 15, 12, 368, 9, 1, 62, 3);
+    // loa cut short by the end of the table
+    assertConverts(2300, 3, 26, 16, 139, 364, 8, 54, 62, 1);
+    assertConverts(2300, 3, 27, 16, 140, 1, 1, 1, 1, 3);
+    // last supported day, Mettarë of XVI 144
+    assertConverts(2305, 3, 28, 16, 144, 368, 9, 1, 62, 6);
+  }
+
+  @Test
+  public void convertsEveryDayAfterThePreviousOne() {
+    ImladrisDate previous = ImladrisDate.ofEpochDay(ImladrisDate.MIN_EPOCH_DAY);
+    for (long epochDay = ImladrisDate.MIN_EPOCH_DAY + 1; epochDay <= ImladrisDate.MAX_EPOCH_DAY;
+         epochDay++) {
+      ImladrisDate date = ImladrisDate.ofEpochDay(epochDay);
+      if (date.getDayOfLoa() == 1) {
+        int y = (previous.getYenInt() - 1) * 144 + previous.getLoa();
+        assertEquals(ImladrisCalendar.loaLength(y), previous.getDayOfLoa());
+        assertEquals(y + 1, (date.getYenInt() - 1) * 144 + date.getLoa());
+      } else {
+        assertEquals(previous.getDayOfLoa() + 1, date.getDayOfLoa());
+        assertEquals(previous.getDayOfWeekInt() % 6 + 1, date.getDayOfWeekInt());
+      }
+      previous = date;
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsDaysBeforeFirstSupported() {
+    new ImladrisCalendar(new GregorianCalendar(1, 0, 15));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsDaysAfterLastSupported() {
+    new ImladrisCalendar(new GregorianCalendar(2305, 2, 29));
+  }
+
+  @Test
+  public void setsYenFromNumerals() {
+    ImladrisCalendar cal = new ImladrisCalendar(2017, 3, 1);
+    cal.setYen("xiv");
+    assertEquals(14, cal.getYenInt());
+    for (String yen : new String[] {"foo", "", "XIVfoo"}) {
+      try {
+        cal.setYen(yen);
+        fail("Accepted yen " + yen);
+      } catch (IllegalArgumentException e) {
+        assertEquals(14, cal.getYenInt());
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsConstructorWithoutYen() {
+    new ImladrisCalendar("foo", 1, 1, 1);
+  }
+
+  @Test
+  public void addPeriodKeepsDayOfPeriod() {
+    ImladrisCalendar cal = new ImladrisCalendar(
+        ImladrisDate.of(15, 10, ImladrisCalendar.YAVIE, 9));
+    cal.add(ImladrisCalendar.PERIOD, 14);
+    assertDate(cal, 15, 11, ImladrisCalendar.METTARE, 1);
+  }
+
+  @Test
+  public void addPeriodClampsToShortenedPeriod() {
+    ImladrisCalendar cal = new ImladrisCalendar(
+        ImladrisDate.of(15, 12, ImladrisCalendar.ENDERI, 6));
+    cal.add(ImladrisCalendar.LOA, 1);
+    assertDate(cal, 15, 13, ImladrisCalendar.ENDERI, 3);
+  }
+
+  @Test
+  public void addPeriodClampsMettareToLastDayOfShortLoa() {
+    ImladrisCalendar cal = new ImladrisCalendar(
+        ImladrisDate.of(16, 138, ImladrisCalendar.YAVIE, 9));
+    cal.add(ImladrisCalendar.PERIOD, 14);
+    assertDate(cal, 16, 139, ImladrisCalendar.COIRE, 54);
+    cal = new ImladrisCalendar(ImladrisDate.of(15, 143, ImladrisCalendar.METTARE, 1));
+    cal.add(ImladrisCalendar.LOA, 1);
+    assertDate(cal, 15, 144, ImladrisCalendar.COIRE, 52);
+    cal.add(ImladrisCalendar.DAY_OF_LOA, 1);
+    assertDate(cal, 16, 1, ImladrisCalendar.YESTARE, 1);
+  }
+
+  @Test
+  public void gregorianIsCreatedAtFirstUse() {
+    ImladrisCalendar cal = new ImladrisCalendar("XV", 10, ImladrisCalendar.LAIRE, 20);
+    cal.add(ImladrisCalendar.DAY_OF_LOA, 3);
+    GregorianCalendar now = new GregorianCalendar();
+    GregorianCalendar gregorian = cal.getGregorian();
+    assertEquals(cal.toLocalDate(), LocalDate.of(gregorian.get(GregorianCalendar.YEAR),
+        gregorian.get(GregorianCalendar.MONTH) + 1, gregorian.get(GregorianCalendar.DAY_OF_MONTH)));
+    assertTrue(Math.floorMod(secondOfDay(gregorian) - secondOfDay(now), 86400) < 2);
+    cal.add(ImladrisCalendar.DAY_OF_LOA, 1);
+    assertSame(gregorian, cal.getGregorian());
+    assertEquals(cal.toLocalDate(), LocalDate.of(gregorian.get(GregorianCalendar.YEAR),
+        gregorian.get(GregorianCalendar.MONTH) + 1, gregorian.get(GregorianCalendar.DAY_OF_MONTH)));
+  }
+
+  private static void assertConverts(int year, int month, int dayOfMonth, int yen, int loa,
+                                     int dayOfLoa, int period, int dayOfPeriod,
+                                     int weekOfPeriod, int dayOfWeek) {
+    String date = year + "-" + month + "-" + dayOfMonth;
+    ImladrisCalendar cal = new ImladrisCalendar(year, month, dayOfMonth);
+    assertEquals(date, yen, cal.get(ImladrisCalendar.YEN));
+    assertEquals(date, loa, cal.get(ImladrisCalendar.LOA));
+    assertEquals(date, dayOfLoa, cal.get(ImladrisCalendar.DAY_OF_LOA));
+    assertEquals(date, period, cal.get(ImladrisCalendar.PERIOD));
+    assertEquals(date, dayOfPeriod, cal.get(ImladrisCalendar.DAY_OF_PERIOD));
+    assertEquals(date, weekOfPeriod, cal.get(ImladrisCalendar.WEEK_OF_PERIOD));
+    assertEquals(date, dayOfWeek, cal.get(ImladrisCalendar.DAY_OF_WEEK));
+    assertEquals(date, cal.toImladrisDate(), ImladrisDate.of(yen, loa, dayOfLoa));
+  }
+
+  private static int secondOfDay(GregorianCalendar cal) {
+    return cal.get(GregorianCalendar.HOUR_OF_DAY) * 3600 + cal.get(GregorianCalendar.MINUTE) * 60
+        + cal.get(GregorianCalendar.SECOND);
+  }
+
+  private static void assertDate(ImladrisCalendar cal, int yen, int loa, int period,
+                                 int dayOfPeriod) {
+    assertEquals(yen, cal.get(ImladrisCalendar.YEN));
+    assertEquals(loa, cal.get(ImladrisCalendar.LOA));
+    assertEquals(period, cal.get(ImladrisCalendar.PERIOD));
+    assertEquals(dayOfPeriod, cal.get(ImladrisCalendar.DAY_OF_PERIOD));
+  }
+
+}
@@ -0,0 +1,113 @@
+package com.erutulco.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.text.ParsePosition;
+
+import org.junit.Test;
+
+public class ImladrisDateFormatterTest {
+
+  private static final ImladrisDateFormatter CUSTOM =
+      ImladrisDateFormatter.ofPattern("'Day' DDD 'of' Y-l (e, w[, p/dd])");
+
+  @Test
+  public void formatsAndParsesEverySupportedDay() {
+    for (long epochDay = ImladrisDate.MIN_EPOCH_DAY; epochDay <= ImladrisDate.MAX_EPOCH_DAY;
+         epochDay++) {
+      ImladrisDate date = ImladrisDate.ofEpochDay(epochDay);
+      assertRoundTrip(ImladrisDateFormatter.TEXTUAL, date);
+      assertRoundTrip(ImladrisDateFormatter.NUMERIC, date);
+      assertRoundTrip(CUSTOM, date);
+    }
+  }
+
+  @Test
+  public void formatsKnownDates() {
+    ImladrisDate date = ImladrisDate.of(15, 10, ImladrisCalendar.TUILE, 1);
+    assertEquals("Menelya, Tuilë 1, XV 10", ImladrisDateFormatter.TEXTUAL.format(date));
+    assertEquals("15-010-002", ImladrisDateFormatter.NUMERIC.format(date));
+    assertEquals("Day 002 of XV-10 (5, 1, 2/01)", CUSTOM.format(date));
+    ImladrisDate yestare = ImladrisDate.of(15, 10, 1);
+    assertEquals("Aldúya, Yestarë, XV 10", ImladrisDateFormatter.TEXTUAL.format(yestare));
+    assertEquals("Day 001 of XV-10 (4, 1)", CUSTOM.format(yestare));
+  }
+
+  @Test
+  public void parsesFromPositionWithTrailingText() {
+    ParsePosition position = new ParsePosition(4);
+    ImladrisDate date = ImladrisDateFormatter.NUMERIC.parse("abc;15-010-002;def", position);
+    assertEquals(ImladrisDate.of(15, 10, 2), date);
+    assertEquals(14, position.getIndex());
+    assertEquals(-1, position.getErrorIndex());
+  }
+
+  @Test
+  public void reportsIndexOfFieldOutOfRange() {
+    // day of period past the end of Tuilë
+    assertParseError(ImladrisDateFormatter.TEXTUAL, "Elenya, Tuilë 55, XV 10", 14);
+    // day of loa past the end of a leap loa
+    assertParseError(ImladrisDateFormatter.NUMERIC, "15-012-369", 7);
+    assertParseError(ImladrisDateFormatter.NUMERIC, "15-010-000", 7);
+    // yen XVII
+    assertParseError(ImladrisDateFormatter.TEXTUAL, "Elenya, Yestarë, XVII 10", 17);
+    assertParseError(ImladrisDateFormatter.NUMERIC, "17-010-001", 0);
+    // loa 145
+    assertParseError(ImladrisDateFormatter.TEXTUAL, "Elenya, Yestarë, XV 145", 20);
+    assertParseError(ImladrisDateFormatter.NUMERIC, "15-145-001", 3);
+    // Mettarë of a loa cut short by the next yen
+    assertParseError(ImladrisDateFormatter.TEXTUAL, "Elenya, Mettarë, III 144", 8);
+    // day of week not matching the date
+    assertParseError(ImladrisDateFormatter.TEXTUAL, "Elenya, Tuilë 1, XV 10", 0);
+    assertParseError(CUSTOM, "Day 002 of XV-10 (5, 1, 3/01)", 24);
+  }
+
+  @Test
+  public void reportsIndexOfTextNotMatching() {
+    assertParseError(ImladrisDateFormatter.NUMERIC, "15-10-002", 5);
+    assertParseError(ImladrisDateFormatter.TEXTUAL, "Elenya, Tuile 1, XV 10", 8);
+    assertParseError(ImladrisDateFormatter.TEXTUAL, "Anarya, Tuilë 1, 10", 17);
+  }
+
+  @Test
+  public void rejectsTrailingText() {
+    try {
+      ImladrisDateFormatter.NUMERIC.parse("15-010-002x");
+      fail("Accepted trailing text");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Invalid date: '15-010-002x' at index 10", e.getMessage());
+    }
+    try {
+      ImladrisDateFormatter.NUMERIC.parse("15-010-0021");
+      fail("Accepted trailing digit");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Invalid date: '15-010-0021' at index 10", e.getMessage());
+    }
+  }
+
+  @Test
+  public void reportsErrorIndexInMessage() {
+    try {
+      ImladrisDateFormatter.TEXTUAL.parse("Elenya, Yestarë, XV 145");
+      fail("Accepted loa 145");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Invalid date: 'Elenya, Yestarë, XV 145' at index 20", e.getMessage());
+    }
+  }
+
+  private static void assertRoundTrip(ImladrisDateFormatter formatter, ImladrisDate date) {
+    String text = formatter.format(date);
+    assertEquals(text, date, formatter.parse(text));
+  }
+
+  private static void assertParseError(ImladrisDateFormatter formatter, String text,
+                                       int errorIndex) {
+    ParsePosition position = new ParsePosition(0);
+    assertNull(text, formatter.parse(text, position));
+    assertEquals(text, errorIndex, position.getErrorIndex());
+    assertEquals(text, 0, position.getIndex());
+  }
+
+}
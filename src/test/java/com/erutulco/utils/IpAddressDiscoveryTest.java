@@ -0,0 +1,73 @@
+package com.erutulco.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class IpAddressDiscoveryTest {
+
+  @Test
+  public void perRequestDiscoveryDoesNotKeepPreviousAddress() throws IOException {
+    AtomicReference<String> header = new AtomicReference<>("203.0.113.7");
+    IpAddressDiscovery discovery = new IpAddressDiscovery(
+        new ForwardedHeaderIpAddressProvider(header::get), 0);
+    assertEquals("203.0.113.7", discovery.getIpAddress());
+    header.set(null);
+    try {
+      discovery.getIpAddress();
+      fail("Address of a previous request returned");
+    } catch (IOException expected) {
+      assertNull(discovery.getCachedIpAddress());
+    }
+    header.set("198.51.100.2, 10.0.0.1");
+    assertEquals("198.51.100.2", discovery.getIpAddress());
+  }
+
+  @Test
+  public void perRequestDiscoveryPropagatesProviderFailures() throws IOException {
+    AtomicReference<String> header = new AtomicReference<>("203.0.113.7");
+    IpAddressDiscovery discovery = new IpAddressDiscovery(() -> {
+      if (header.get() == null) {
+        throw new IOException("Unreachable");
+      }
+      return header.get();
+    }, 0);
+    assertEquals("203.0.113.7", discovery.getIpAddress());
+    header.set(null);
+    try {
+      discovery.getIpAddress();
+      fail("Address of a previous request returned");
+    } catch (IOException expected) {
+      assertEquals("Unreachable", expected.getMessage());
+    }
+  }
+
+  @Test
+  public void cachedDiscoveryAsksAgainOnlyOnRefresh() throws IOException {
+    AtomicReference<String> address = new AtomicReference<>("203.0.113.7");
+    IpAddressDiscovery discovery = new IpAddressDiscovery(
+        address::get, TimeUnit.MINUTES.toMillis(10));
+    assertEquals("203.0.113.7", discovery.getIpAddress());
+    address.set("198.51.100.2");
+    assertEquals("203.0.113.7", discovery.getIpAddress());
+    assertEquals("198.51.100.2", discovery.refresh());
+  }
+
+  @Test
+  public void cachedDiscoveryKeepsPreviousAddressOnFailure()
+      throws IOException, InterruptedException {
+    AtomicReference<String> address = new AtomicReference<>("203.0.113.7");
+    IpAddressDiscovery discovery = new IpAddressDiscovery(address::get, 1);
+    assertEquals("203.0.113.7", discovery.getIpAddress());
+    address.set(null);
+    Thread.sleep(5);
+    assertEquals("203.0.113.7", discovery.getIpAddress());
+  }
+
+}
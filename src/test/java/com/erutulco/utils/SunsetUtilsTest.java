@@ -0,0 +1,55 @@
+package com.erutulco.utils;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import com.google.maps.GeoApiContext;
+import com.google.maps.OkHttpRequestHandler;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class SunsetUtilsTest {
+
+  /**
+   * Set the Geo API settings back to their defaults.
+   */
+  @After
+  public void tearDown() {
+    SunsetUtils.setGoogleMapsApiKey(null);
+    SunsetUtils.setGeoApiQueryRateLimit(0);
+    SunsetUtils.setGeoApiTimeouts(0, 0, TimeUnit.MILLISECONDS);
+    SunsetUtils.setGeoApiRequestHandler(null);
+    SunsetUtils.setGeoApiBaseUrl(null);
+  }
+
+  @Test
+  public void geoApiContextIsUpdatedInPlace() {
+    final GeoApiContext context = SunsetUtils.getGeoApiContext();
+    SunsetUtils.setGoogleMapsApiKey("AIzaTestKey");
+    SunsetUtils.setGeoApiQueryRateLimit(5);
+    SunsetUtils.setGeoApiTimeouts(2, 3, TimeUnit.SECONDS);
+    SunsetUtils.setGeoApiQueryRateLimit(0);
+    SunsetUtils.setGeoApiTimeouts(0, 0, TimeUnit.SECONDS);
+    assertSame(context, SunsetUtils.getGeoApiContext());
+  }
+
+  @Test
+  public void geoApiContextIsKeptWhenTransportIsUnchanged() {
+    SunsetUtils.setGeoApiBaseUrl("http://localhost:8080");
+    GeoApiContext context = SunsetUtils.getGeoApiContext();
+    SunsetUtils.setGeoApiBaseUrl("http://localhost:8080");
+    SunsetUtils.setGeoApiRequestHandler(null);
+    assertSame(context, SunsetUtils.getGeoApiContext());
+  }
+
+  @Test
+  public void geoApiContextIsRebuiltForAnotherTransport() {
+    GeoApiContext context = SunsetUtils.getGeoApiContext();
+    SunsetUtils.setGeoApiRequestHandler(new OkHttpRequestHandler());
+    assertNotSame(context, SunsetUtils.getGeoApiContext());
+  }
+
+}